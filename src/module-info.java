@@ -1,5 +1,7 @@
 module BFSPuzzleSolver {
     requires transitive javafx.controls;
+    requires jdk.management;
+    requires jdk.httpserver;
     exports puzzles.common;
     exports puzzles.common.solver;
     exports puzzles.hoppers.gui;
@@ -0,0 +1,235 @@
+package puzzles.batch;
+
+import puzzles.chess.model.ChessConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Solves every puzzle in some directories or matching some globs in one
+ * JVM, several at a time on a fixed pool of workers. Each solution is
+ * written in the same format as the output/*-out.txt files, to a file of
+ * the same name under the output directory, output/batch by default, and
+ * a summary of the time and configurations each puzzle took is printed
+ * and written to summary.txt there. A puzzle that cannot be read or
+ * solved is listed as an error without stopping the others.
+ * <pre>
+ *     java Batch [-j threads] [-o outputDir] directory-or-glob...
+ *     java Batch data/chess 'data/hoppers/hoppers-[0-5].txt'
+ * </pre>
+ * The kind of each puzzle is told by the start of its file name, chess or
+ * hoppers.
+ *
+ * @author Tiffany Lee
+ */
+public class Batch {
+    /** Directory the solutions and summary are written to by default, which git ignores */
+    private static final String OUTPUT = "output/batch";
+
+    /**
+     * What solving one puzzle came to
+     *
+     * @param file the puzzle file
+     * @param steps number of steps in the solution, or -1 if there is none
+     * @param wallNanos time it took to load, solve and write, in nanoseconds
+     * @param totalConfigs total number of configurations
+     * @param uniqueConfigs number of unique configurations
+     * @param error why it could not be solved, or null if it was
+     */
+    private record Outcome(Path file, int steps, long wallNanos, int totalConfigs,
+                           int uniqueConfigs, String error) {}
+
+    /**
+     * Loads, solves and writes the solution of one puzzle
+     *
+     * @param file the puzzle file
+     * @param outputDir where the solution is written
+     * @return what it came to
+     */
+    private static Outcome solve(Path file, Path outputDir) {
+        long began = System.nanoTime();
+        String name = file.getFileName().toString();
+        boolean chess = name.startsWith("chess");
+        if (!chess && !name.startsWith("hoppers")) {
+            return new Outcome(file, -1, 0, 0, 0, "not a chess or hoppers puzzle");
+        }
+        try {
+            Configuration start;
+            if (chess) {
+                start = new ChessConfig(file.toString());
+            } else {
+                start = new HoppersConfig(file.toString());
+            }
+            Solver solver = new Solver(start);
+            Collection<Configuration> solved = solver.solve();
+            Path out = outputDir.resolve(chess ? "chess" : "hoppers")
+                    .resolve(name.replaceFirst("\\.txt$", "") + "-out.txt");
+            Files.createDirectories(out.getParent());
+            Files.writeString(out, report(file, start, solver, solved));
+            return new Outcome(file, solved == null ? -1 : solved.size() - 1, System.nanoTime() - began,
+                    solver.getTotalConfigs(), solver.getUniqueConfigs(), null);
+        } catch (IOException | UncheckedIOException e) {
+            return new Outcome(file, -1, System.nanoTime() - began, 0, 0, e.getMessage());
+        } catch (RuntimeException e) {
+            // a malformed puzzle fails on its own instead of stopping the batch
+            return new Outcome(file, -1, System.nanoTime() - began, 0, 0, e.toString());
+        }
+    }
+
+    /**
+     * Writes a solve out the way the Chess and Hoppers programs print it
+     *
+     * @param file the puzzle file
+     * @param start the start configuration
+     * @param solver the solver that solved it
+     * @param solved the solution, or null if there is none
+     * @return the text of the output file
+     */
+    private static String report(Path file, Configuration start, Solver solver,
+                                 Collection<Configuration> solved) {
+        StringBuilder text = new StringBuilder();
+        text.append("File: ").append(file).append('\n');
+        text.append(board(start)).append('\n');
+        text.append("Total configs: ").append(solver.getTotalConfigs()).append('\n');
+        text.append("Unique configs: ").append(solver.getUniqueConfigs()).append('\n');
+        if (solved != null) {
+            int step = 0;
+            for (Configuration config : solved) {
+                text.append("Step ").append(step).append(":\n");
+                text.append(board(config)).append("\n\n");
+                step += 1;
+            }
+            return text.toString().stripTrailing();
+        }
+        return text.append("No solution").toString();
+    }
+
+    /**
+     * Gets a board as its rows, without blank lines around it or spaces at
+     * the ends of the rows
+     *
+     * @param config the configuration
+     * @return the rows
+     */
+    private static String board(Configuration config) {
+        return config.toString().strip().lines()
+                .map(String::stripTrailing)
+                .reduce((above, below) -> above + "\n" + below)
+                .orElse("");
+    }
+
+    /**
+     * Finds the puzzle files a directory or glob names, in name order
+     *
+     * @param pattern a directory, or a glob like data/hoppers/*.txt
+     * @return the puzzle files
+     * @throws IOException if a directory cannot be listed
+     */
+    private static List<Path> puzzles(String pattern) throws IOException {
+        Path directory = Path.of(pattern);
+        PathMatcher matcher;
+        if (Files.isDirectory(directory)) {
+            matcher = path -> path.getFileName().toString().endsWith(".txt");
+        } else {
+            // walk from the deepest directory before the first wildcard
+            int wildcard = pattern.length();
+            for (char special : "*?[{".toCharArray()) {
+                int at = pattern.indexOf(special);
+                if (at >= 0) {
+                    wildcard = Math.min(wildcard, at);
+                }
+            }
+            int slash = pattern.lastIndexOf('/', wildcard);
+            directory = Path.of(slash < 0 ? "." : pattern.substring(0, slash + 1));
+            PathMatcher glob = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            Path base = directory;
+            matcher = path -> glob.matches(slash < 0 ? base.relativize(path) : path);
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).filter(matcher::matches).sorted().toList();
+        }
+    }
+
+    /**
+     * Formats the summary table
+     *
+     * @param outcomes what each puzzle came to
+     * @return the table
+     */
+    private static String summary(List<Outcome> outcomes) {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-32s %10s %12s %14s %14s%n",
+                "Puzzle", "Steps", "Wall ms", "Total configs", "Unique configs"));
+        for (Outcome outcome : outcomes) {
+            String steps = outcome.error() != null ? "error" : outcome.steps() < 0 ? "none" : "" + outcome.steps();
+            table.append(String.format(Locale.ROOT, "%-32s %10s %12.1f %14d %14d%n", outcome.file(), steps,
+                    outcome.wallNanos() / 1e6, outcome.totalConfigs(), outcome.uniqueConfigs()));
+            if (outcome.error() != null) {
+                table.append("    ").append(outcome.error()).append(System.lineSeparator());
+            }
+        }
+        return table.toString();
+    }
+
+    /**
+     * The main method.
+     * @param args options, then the directories or globs of the puzzles
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path outputDir = Path.of(OUTPUT);
+        List<String> patterns = new ArrayList<>();
+        for (int arg = 0; arg < args.length; arg++) {
+            if (args[arg].equals("-j") && arg + 1 < args.length) {
+                threads = Integer.parseInt(args[++arg]);
+            } else if (args[arg].equals("-o") && arg + 1 < args.length) {
+                outputDir = Path.of(args[++arg]);
+            } else {
+                patterns.add(args[arg]);
+            }
+        }
+        if (patterns.isEmpty() || threads < 1) {
+            System.out.println("Usage: java Batch [-j threads] [-o outputDir] directory-or-glob...");
+            return;
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Outcome>> pending = new ArrayList<>();
+            for (String pattern : patterns) {
+                for (Path file : puzzles(pattern)) {
+                    Path out = outputDir;
+                    pending.add(workers.submit(() -> solve(file, out)));
+                }
+            }
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> outcome : pending) {
+                outcomes.add(outcome.get());
+            }
+            String table = summary(outcomes);
+            System.out.print(table);
+            Files.createDirectories(outputDir);
+            Files.writeString(outputDir.resolve("summary.txt"), table);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println("Batch stopped: " + e);
+        } finally {
+            workers.shutdown();
+        }
+    }
+}
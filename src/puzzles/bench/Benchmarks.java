@@ -0,0 +1,234 @@
+package puzzles.bench;
+
+import puzzles.chess.model.ChessBitboard;
+import puzzles.chess.model.ChessConfig;
+import puzzles.chess.model.ChessMoves;
+import puzzles.common.Coordinates;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.DepthFirstSolver;
+import puzzles.common.solver.Solver;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Benchmarks the hot paths of the puzzles: chess move generation for each
+ * piece, neighbor generation of chess bitboards, hoppers move and
+ * neighbor generation, hashing and equality of all three boards, and
+ * whole breadth first and depth first solves of the puzzles in data/chess
+ * and data/hoppers. Each result is printed as operations per second and
+ * bytes allocated per operation.
+ * <pre>
+ *     java Benchmarks [filter [warmupMillis measureMillis]]
+ * </pre>
+ * Only benchmarks whose name contains the filter are run.
+ *
+ * @author Tiffany Lee
+ */
+public class Benchmarks {
+    /** Directory holding the chess puzzles */
+    private static final String CHESS_DATA = "data/chess";
+    /** Directory holding the hoppers puzzles */
+    private static final String HOPPERS_DATA = "data/hoppers";
+    /** Board the move generation and hashing benchmarks run on */
+    private static final String CHESS_BOARD = CHESS_DATA + "/chess-9.txt";
+    /** Board the bitboard benchmarks run on, the largest whose 64 cells fit in a long */
+    private static final String BITBOARD_BOARD = CHESS_DATA + "/chess-8.txt";
+    /** Board the move generation and hashing benchmarks run on */
+    private static final String HOPPERS_BOARD = HOPPERS_DATA + "/hoppers-9.txt";
+    /** Default warmup time per benchmark, in milliseconds */
+    private static final long WARMUP_MILLIS = 1000;
+    /** Default measured time per benchmark, in milliseconds */
+    private static final long MEASURE_MILLIS = 2000;
+
+    /** Only benchmarks whose name contains this are run */
+    private final String filter;
+    /** Runs and measures each benchmark */
+    private final Microbench bench;
+
+    /**
+     * Initialize the benchmarks
+     *
+     * @param filter only benchmarks whose name contains this are run
+     * @param bench runs and measures each benchmark
+     */
+    private Benchmarks(String filter, Microbench bench) {
+        this.filter = filter;
+        this.bench = bench;
+    }
+
+    /**
+     * Runs and prints one benchmark, unless it is filtered out
+     *
+     * @param name name of the benchmark
+     * @param op the operation, handed the number of the run
+     */
+    private void run(String name, LongUnaryOperator op) {
+        if (name.contains(filter)) {
+            System.out.println(bench.run(name, op));
+        }
+    }
+
+    /**
+     * Benchmarks the make*Configs helpers, one piece at a time, on every
+     * piece of that kind on the chess board
+     *
+     * @throws IOException if the board cannot be read
+     */
+    private void chessMoves() throws IOException {
+        ChessConfig board = new ChessConfig(CHESS_BOARD);
+        for (char piece : new char[]{ChessConfig.BISHOP, ChessConfig.KING, ChessConfig.KNIGHT,
+                ChessConfig.PAWN, ChessConfig.QUEEN, ChessConfig.ROOK}) {
+            List<Coordinates> cells = new ArrayList<>();
+            for (int row = 0; row < board.getRows(); row++) {
+                for (int col = 0; col < board.getCols(); col++) {
+                    if (ChessConfig.getCell(row, col, board) == piece) {
+                        cells.add(new Coordinates(row, col));
+                    }
+                }
+            }
+            if (cells.isEmpty()) {
+                continue;
+            }
+            run("chess.make" + piece + "Configs", n -> {
+                Coordinates cell = cells.get((int) (n % cells.size()));
+                List<Configuration> neighbors = new ArrayList<>();
+                switch (piece) {
+                    case ChessConfig.BISHOP -> ChessMoves.makeBishopConfigs(neighbors, board, cell);
+                    case ChessConfig.KING -> ChessMoves.makeKingConfigs(neighbors, board, cell);
+                    case ChessConfig.KNIGHT -> ChessMoves.makeKnightConfigs(neighbors, board, cell);
+                    case ChessConfig.PAWN -> ChessMoves.makePawnConfigs(neighbors, board, cell);
+                    case ChessConfig.QUEEN -> ChessMoves.makeQueenConfigs(neighbors, board, cell);
+                    case ChessConfig.ROOK -> ChessMoves.makeRookConfigs(neighbors, board, cell);
+                }
+                return neighbors.size();
+            });
+        }
+        run("chess.getNeighbors", n -> board.getNeighbors().size());
+        run("chess.forEachNeighbor", n -> {
+            long[] count = {0};
+            board.forEachNeighbor(nbr -> count[0] += 1);
+            return count[0];
+        });
+        ChessConfig copy = new ChessConfig(board);
+        run("chess.hashCode", n -> board.hashCode());
+        run("chess.equals", n -> board.equals(copy) ? 1 : 0);
+    }
+
+    /**
+     * Benchmarks neighbor generation, hashing and equality of a chess board
+     * kept as bitboards, next to the same board kept as cells
+     *
+     * @throws IOException if the board cannot be read
+     */
+    private void chessBitboard() throws IOException {
+        ChessConfig cells = new ChessConfig(BITBOARD_BOARD);
+        ChessBitboard board = new ChessBitboard(cells);
+        ChessBitboard copy = new ChessBitboard(cells);
+        run("chessCells.forEachNeighbor", n -> {
+            long[] count = {0};
+            cells.forEachNeighbor(nbr -> count[0] += 1);
+            return count[0];
+        });
+        run("chessBitboard.forEachNeighbor", n -> {
+            long[] count = {0};
+            board.forEachNeighbor(nbr -> count[0] += 1);
+            return count[0];
+        });
+        run("chessBitboard.hashCode", n -> board.hashCode());
+        run("chessBitboard.equals", n -> board.equals(copy) ? 1 : 0);
+    }
+
+    /**
+     * Benchmarks hoppers move and neighbor generation, hashing and equality
+     *
+     * @throws IOException if the board cannot be read
+     */
+    private void hoppersMoves() throws IOException {
+        HoppersConfig board = new HoppersConfig(HOPPERS_BOARD);
+        int cells = board.getRows() * board.getCols();
+        run("hoppers.getMoves", n -> {
+            int cell = (int) (n % cells);
+            return board.getMoves(cell / board.getCols(), cell % board.getCols()).size();
+        });
+        run("hoppers.getNeighbors", n -> board.getNeighbors().size());
+        run("hoppers.forEachNeighbor", n -> {
+            long[] count = {0};
+            board.forEachNeighbor(nbr -> count[0] += 1);
+            return count[0];
+        });
+        HoppersConfig copy = new HoppersConfig(HOPPERS_BOARD);
+        run("hoppers.hashCode", n -> board.hashCode());
+        run("hoppers.equals", n -> board.equals(copy) ? 1 : 0);
+    }
+
+    /**
+     * Benchmarks a whole breadth first and depth first solve of each
+     * puzzle in the chess and hoppers data directories
+     *
+     * @throws IOException if a puzzle cannot be read
+     */
+    private void solves() throws IOException {
+        for (File file : puzzles(CHESS_DATA)) {
+            ChessConfig start = new ChessConfig(file.getPath());
+            run("solve." + file.getName(), n -> new Solver(start).solve() == null ? 0 : 1);
+            run("solveDepthFirst." + file.getName(), n -> new DepthFirstSolver(start).solve() == null ? 0 : 1);
+            if (ChessBitboard.fits(start.getRows(), start.getCols())) {
+                ChessBitboard bitboard = new ChessBitboard(start);
+                run("solveBitboard." + file.getName(), n -> new Solver(bitboard).solve() == null ? 0 : 1);
+            }
+        }
+        for (File file : puzzles(HOPPERS_DATA)) {
+            HoppersConfig start = new HoppersConfig(file.getPath());
+            run("solve." + file.getName(), n -> new Solver(start).solve() == null ? 0 : 1);
+            run("solveDepthFirst." + file.getName(), n -> new DepthFirstSolver(start).solve() == null ? 0 : 1);
+        }
+    }
+
+    /**
+     * Lists the puzzle files in a directory in name order
+     *
+     * @param directory the directory
+     * @return the puzzle files
+     * @throws IOException if the directory cannot be listed
+     */
+    private static File[] puzzles(String directory) throws IOException {
+        File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(".txt"));
+        if (files == null) {
+            throw new IOException("Cannot list " + directory);
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * The main method.
+     * @param args optional filter, warmup and measured time in milliseconds
+     */
+    public static void main(String[] args) {
+        if (args.length != 0 && args.length != 1 && args.length != 3) {
+            System.out.println("Usage: java Benchmarks [filter [warmupMillis measureMillis]]");
+        } else {
+            String filter = args.length >= 1 ? args[0] : "";
+            long warmup = args.length == 3 ? Long.parseLong(args[1]) : WARMUP_MILLIS;
+            long measure = args.length == 3 ? Long.parseLong(args[2]) : MEASURE_MILLIS;
+            Microbench bench = new Microbench(warmup * 1_000_000, measure * 1_000_000);
+            Benchmarks benchmarks = new Benchmarks(filter, bench);
+            try {
+                benchmarks.chessMoves();
+                benchmarks.chessBitboard();
+                benchmarks.hoppersMoves();
+                benchmarks.solves();
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+            // keeps the results of the operations alive
+            System.out.println("(checksum " + bench.getSink() + ")");
+        }
+    }
+}
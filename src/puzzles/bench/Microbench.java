@@ -0,0 +1,104 @@
+package puzzles.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A small benchmark harness. An operation is run over and over until a
+ * warmup time has passed, so the JIT has compiled it, and then again for
+ * a measured time. It reports operations per second and bytes allocated
+ * per operation, the way JMH does with its gc profiler.
+ *
+ * @author Tiffany Lee
+ */
+public class Microbench {
+    /** Nanoseconds in a second */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** Reads how many bytes the current thread has allocated */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** How long each operation is run before measuring, in nanoseconds */
+    private final long warmupNanos;
+    /** How long each operation is measured for, in nanoseconds */
+    private final long measureNanos;
+    /**
+     * Sum of every value the operations returned, so the JIT cannot
+     * throw their work away
+     */
+    private long sink = 0;
+
+    /**
+     * The result of measuring one operation
+     *
+     * @param name name of the operation
+     * @param ops number of times it was run while measured
+     * @param opsPerSecond how many times it ran per second
+     * @param bytesPerOp bytes allocated per run
+     */
+    public record Result(String name, long ops, double opsPerSecond, double bytesPerOp) {
+        /**
+         * @return the result as one line of a table
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-40s %14.1f ops/s %14.1f B/op", name, opsPerSecond, bytesPerOp);
+        }
+    }
+
+    /**
+     * Initialize a new harness
+     *
+     * @param warmupNanos how long each operation is run before measuring
+     * @param measureNanos how long each operation is measured for
+     */
+    public Microbench(long warmupNanos, long measureNanos) {
+        this.warmupNanos = warmupNanos;
+        this.measureNanos = measureNanos;
+    }
+
+    /**
+     * Warms up and measures an operation. The operation is handed the
+     * number of the run and returns a value that depends on its work.
+     *
+     * @param name name of the operation
+     * @param op the operation
+     * @return how fast it ran and how much it allocated
+     */
+    public Result run(String name, LongUnaryOperator op) {
+        loop(op, warmupNanos);
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long began = System.nanoTime();
+        long ops = loop(op, measureNanos);
+        long elapsed = System.nanoTime() - began;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        return new Result(name, ops, ops * NANOS_PER_SECOND / elapsed, (double) bytes / ops);
+    }
+
+    /**
+     * Runs an operation until some time has passed, and at least once
+     *
+     * @param op the operation
+     * @param nanos how long to keep running it
+     * @return how many times it ran
+     */
+    private long loop(LongUnaryOperator op, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long ops = 0;
+        do {
+            sink += op.applyAsLong(ops);
+            ops += 1;
+        } while (System.nanoTime() < deadline);
+        return ops;
+    }
+
+    /**
+     * Gets the sum of every value the operations returned. Printing it
+     * keeps the work of the operations from being optimized away.
+     *
+     * @return the sum
+     */
+    public long getSink() { return sink; }
+}
@@ -0,0 +1,143 @@
+package puzzles.chess.model;
+
+import puzzles.common.GridSymmetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The captures every piece could make from every cell of a board of one
+ * size, worked out once so that {@link ChessBitboard} only has to look
+ * them up. Cells are numbered row by row, so cell row*cols + col is bit
+ * row*cols + col of a bitboard.
+ * <p>
+ * The captures of a leaping piece are listed in the order of the tables
+ * in {@link ChessMoves}. The cells along each sliding direction are kept
+ * as a mask, and the first piece met is the lowest or highest bit of the
+ * mask that is occupied, depending on whether the direction runs forwards
+ * or backwards through the cell numbers.
+ *
+ * @author jolin qiu
+ */
+final class ChessAttacks {
+    /** Tables already worked out, by rows * 64 + cols */
+    private static final Map<Integer, ChessAttacks> TABLES = new ConcurrentHashMap<>();
+
+    /** number of rows */
+    final int rows;
+    /** number of columns */
+    final int cols;
+    /** the cells a KING captures on from each cell */
+    final int[][] kingTargets;
+    /** the cells a KNIGHT captures on from each cell */
+    final int[][] knightTargets;
+    /** the cells a PAWN captures on from each cell */
+    final int[][] pawnTargets;
+    /** the cells along each direction of {@link ChessMoves#QUEEN_RAYS} from each cell */
+    final long[][] rays;
+    /** does each direction of {@link ChessMoves#QUEEN_RAYS} run towards higher cell numbers? */
+    final boolean[] forwards;
+    /** the turns and flips that fit the board */
+    final List<GridSymmetry> symmetries = new ArrayList<>();
+    /** where each symmetry puts the piece on each cell, in the order of {@link #symmetries} */
+    final List<int[]> destinations = new ArrayList<>();
+
+    /**
+     * Works out the tables of a board size
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    private ChessAttacks(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int cells = rows * cols;
+        kingTargets = new int[cells][];
+        knightTargets = new int[cells][];
+        pawnTargets = new int[cells][];
+        rays = new long[ChessMoves.QUEEN_RAYS.length][cells];
+        forwards = new boolean[ChessMoves.QUEEN_RAYS.length];
+        for (int direction = 0; direction < forwards.length; direction++) {
+            int[] ray = ChessMoves.QUEEN_RAYS[direction];
+            forwards[direction] = ray[0] * cols + ray[1] > 0;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / cols;
+            int col = cell % cols;
+            kingTargets[cell] = targets(row, col, ChessMoves.KING_LEAPS);
+            knightTargets[cell] = targets(row, col, ChessMoves.KNIGHT_LEAPS);
+            pawnTargets[cell] = targets(row, col, ChessMoves.PAWN_LEAPS);
+            for (int direction = 0; direction < rays.length; direction++) {
+                int[] ray = ChessMoves.QUEEN_RAYS[direction];
+                for (int r = row + ray[0], c = col + ray[1];
+                     ChessMoves.isValidBounds(r, c, rows, cols); r += ray[0], c += ray[1]) {
+                    rays[direction][cell] |= 1L << (r * cols + c);
+                }
+            }
+        }
+        for (GridSymmetry symmetry : GridSymmetry.values()) {
+            if (symmetry.fits(rows, cols)) {
+                int[] destination = new int[cells];
+                for (int cell = 0; cell < cells; cell++) {
+                    int row = cell / cols;
+                    int col = cell % cols;
+                    destination[symmetry.sourceRow(row, col, rows, cols) * cols
+                            + symmetry.sourceCol(row, col, rows, cols)] = cell;
+                }
+                symmetries.add(symmetry);
+                destinations.add(destination);
+            }
+        }
+    }
+
+    /**
+     * Gets the tables of a board size, working them out the first time
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return the tables
+     * @throws IllegalArgumentException if the board has more than 64 cells
+     */
+    static ChessAttacks of(int rows, int cols) {
+        if (rows * cols > Long.SIZE) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " board does not fit in a bitboard");
+        }
+        return TABLES.computeIfAbsent(rows * 64 + cols, size -> new ChessAttacks(rows, cols));
+    }
+
+    /**
+     * Lists the cells on the board a leap away from a cell
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param leaps the leaps, relative to the cell
+     * @return the cells, in the order of the leaps
+     */
+    private int[] targets(int row, int col, int[][] leaps) {
+        List<Integer> targets = new ArrayList<>();
+        for (int[] leap : leaps) {
+            if (ChessMoves.isValidBounds(row + leap[0], col + leap[1], rows, cols)) {
+                targets.add((row + leap[0]) * cols + col + leap[1]);
+            }
+        }
+        return targets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Gets the first piece met sliding from a cell in one direction
+     *
+     * @param direction index of the direction in {@link ChessMoves#QUEEN_RAYS}
+     * @param cell the cell slid from
+     * @param occupied the occupied cells
+     * @return the cell of the piece, or -1 if there is none
+     */
+    int firstBlocker(int direction, int cell, long occupied) {
+        long blockers = rays[direction][cell] & occupied;
+        if (blockers == 0) {
+            return -1;
+        }
+        return forwards[direction] ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+    }
+}
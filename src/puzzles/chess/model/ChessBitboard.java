@@ -0,0 +1,371 @@
+package puzzles.chess.model;
+
+import puzzles.common.GridSymmetry;
+import puzzles.common.solver.CompactConfiguration;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.MonotoneConfiguration;
+import puzzles.common.solver.PrunableConfiguration;
+import puzzles.common.solver.SymmetricConfiguration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A chess board of at most 64 cells kept as bitboards: one long with a
+ * bit for every occupied cell, and one long for the cells of each kind
+ * of piece. Captures are looked up in the {@link ChessAttacks} of the
+ * board size, a capture is a few bit operations on a copy of seven longs,
+ * and hashing and equality compare the longs instead of every cell.
+ * <p>
+ * It makes the same neighbors in the same order as {@link ChessConfig},
+ * prints the same, and encodes the same, so either can be solved and
+ * their solutions share a {@link puzzles.common.solver.SolutionStore}.
+ *
+ * @author jolin qiu
+ */
+public class ChessBitboard implements CompactConfiguration, MonotoneConfiguration,
+        PrunableConfiguration, SymmetricConfiguration {
+    /** index of each kind of piece in {@link #pieces}, in the order of {@link ChessConfig#PIECES} */
+    private static final int BISHOP = 0, KING = 1, KNIGHT = 2, PAWN = 3, QUEEN = 4, ROOK = 5;
+    /** the directions of {@link ChessMoves#QUEEN_RAYS} a BISHOP slides in */
+    private static final int[] BISHOP_DIRECTIONS = {0, 1, 2, 3};
+    /** the directions of {@link ChessMoves#QUEEN_RAYS} a ROOK slides in */
+    private static final int[] ROOK_DIRECTIONS = {4, 5, 6, 7};
+    /** the directions of {@link ChessMoves#QUEEN_RAYS} a QUEEN slides in */
+    private static final int[] QUEEN_DIRECTIONS = {0, 1, 2, 3, 4, 5, 6, 7};
+
+    /** the captures of the board size */
+    private final ChessAttacks attacks;
+    /** the occupied cells */
+    private long occupied;
+    /** the cells of each kind of piece */
+    private final long[] pieces;
+
+    /**
+     * Makes the bitboards of a board
+     * @param board the board
+     * @throws IllegalArgumentException if the board has more than 64 cells
+     */
+    public ChessBitboard(ChessConfig board) {
+        this.attacks = ChessAttacks.of(board.getRows(), board.getCols());
+        this.pieces = new long[ChessConfig.PIECES.length()];
+        for (int row = 0; row < attacks.rows; row++) {
+            for (int col = 0; col < attacks.cols; col++) {
+                int kind = ChessConfig.PIECES.indexOf(ChessConfig.getCell(row, col, board));
+                if (kind >= 0) {
+                    long bit = 1L << (row * attacks.cols + col);
+                    occupied |= bit;
+                    pieces[kind] |= bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a board from a puzzle file, see {@link ChessConfig#ChessConfig(String)}
+     * @param filename the name of the file to process
+     * @throws IOException the filename wasn't valid
+     * @throws IllegalArgumentException if the board has more than 64 cells
+     */
+    public ChessBitboard(String filename) throws IOException {
+        this(new ChessConfig(filename));
+    }
+
+    /**
+     * Makes a board from its bitboards, which are not copied
+     * @param attacks the captures of the board size
+     * @param occupied the occupied cells
+     * @param pieces the cells of each kind of piece
+     */
+    private ChessBitboard(ChessAttacks attacks, long occupied, long[] pieces) {
+        this.attacks = attacks;
+        this.occupied = occupied;
+        this.pieces = pieces;
+    }
+
+    /**
+     * Can a board be kept as bitboards?
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return true if it has at most 64 cells
+     */
+    public static boolean fits(int rows, int cols) {
+        return rows * cols <= Long.SIZE;
+    }
+
+    /**
+     * When the solution is found there will be one piece remaining on the board.
+     * @return true if one piece was remaining, false otherwise
+     */
+    @Override
+    public boolean isSolution() {
+        return Long.bitCount(occupied) == 1;
+    }
+
+    /**
+     * Every capture takes one piece off the board, so there is one move
+     * left per piece but one.
+     * @return number of captures left
+     */
+    @Override
+    public int movesRemaining() {
+        return Math.max(Long.bitCount(occupied) - 1, 0);
+    }
+
+    /**
+     * Is the board split into pieces that can never all meet, see
+     * {@link ChessReachability}?
+     * @return true if it can not be cleared down to one piece
+     */
+    @Override
+    public boolean isDeadEnd() {
+        int count = Long.bitCount(occupied);
+        int[] rows = new int[count];
+        int[] cols = new int[count];
+        int[] kinds = new int[count];
+        int piece = 0;
+        for (long rest = occupied; rest != 0; rest &= rest - 1) {
+            int cell = Long.numberOfTrailingZeros(rest);
+            rows[piece] = cell / attacks.cols;
+            cols[piece] = cell % attacks.cols;
+            kinds[piece++] = kindAt(1L << cell);
+        }
+        return ChessReachability.isDeadEnd(rows, cols, kinds, count);
+    }
+
+    /**
+     * Gets the kind of piece on an occupied cell
+     * @param bit the bit of the cell
+     * @return its index in {@link #pieces}
+     */
+    private int kindAt(long bit) {
+        int kind = 0;
+        while ((pieces[kind] & bit) == 0) {
+            kind++;
+        }
+        return kind;
+    }
+
+    /**
+     * Gets the possible configurations of neighbors
+     * each move has to be a valid CAPTURE
+     * @return the list of neighbors
+     */
+    @Override
+    public Collection<Configuration> getNeighbors() {
+        List<Configuration> neighbors = new ArrayList<>();
+        forEachNeighbor(neighbors::add);
+        return neighbors;
+    }
+
+    /**
+     * Hands each board one capture away to the sink, piece by piece in
+     * row-major order, in the order {@link ChessConfig} does.
+     * @param sink receives each neighbor
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> sink) {
+        for (long rest = occupied; rest != 0; rest &= rest - 1) {
+            int cell = Long.numberOfTrailingZeros(rest);
+            int kind = kindAt(1L << cell);
+            switch (kind) {
+                case BISHOP -> slide(cell, kind, BISHOP_DIRECTIONS, sink);
+                case KING -> leap(cell, kind, attacks.kingTargets[cell], sink);
+                case KNIGHT -> leap(cell, kind, attacks.knightTargets[cell], sink);
+                case PAWN -> leap(cell, kind, attacks.pawnTargets[cell], sink);
+                case QUEEN -> slide(cell, kind, QUEEN_DIRECTIONS, sink);
+                case ROOK -> slide(cell, kind, ROOK_DIRECTIONS, sink);
+                default -> throw new IllegalStateException("No piece of kind " + kind);
+            }
+        }
+    }
+
+    /**
+     * captures the first piece met along each direction
+     */
+    private void slide(int cell, int kind, int[] directions, Consumer<Configuration> sink) {
+        for (int direction : directions) {
+            int target = attacks.firstBlocker(direction, cell, occupied);
+            if (target >= 0) {
+                sink.accept(capture(cell, target, kind));
+            }
+        }
+    }
+
+    /**
+     * captures any piece sitting on one of the given cells
+     */
+    private void leap(int cell, int kind, int[] targets, Consumer<Configuration> sink) {
+        for (int target : targets) {
+            if ((occupied & (1L << target)) != 0) {
+                sink.accept(capture(cell, target, kind));
+            }
+        }
+    }
+
+    /**
+     * Makes the board after one piece captures another
+     * @param from the cell of the capturing piece
+     * @param to the cell of the captured piece
+     * @param kind the kind of the capturing piece
+     * @return the new board
+     */
+    private ChessBitboard capture(int from, int to, int kind) {
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        long[] captured = pieces.clone();
+        captured[kindAt(toBit)] &= ~toBit;
+        captured[kind] ^= fromBit | toBit;
+        return new ChessBitboard(attacks, occupied & ~fromBit, captured);
+    }
+
+    /**
+     * Gets the board that comes first of this one turned and flipped every
+     * way the pieces allow. Without pawns every turn and flip that fits the
+     * board works, with pawns only the left to right mirror does. Boards
+     * are ordered by their longs, which is quicker than by their cells.
+     * @return the canonical form, this board if it already is one
+     */
+    @Override
+    public Configuration canonical() {
+        ChessBitboard best = this;
+        for (int index = 0; index < attacks.symmetries.size(); index++) {
+            if (pieces[PAWN] != 0 && !ChessConfig.PAWN_SYMMETRIES.contains(attacks.symmetries.get(index))) {
+                continue;
+            }
+            ChessBitboard moved = transform(attacks.destinations.get(index));
+            if (moved.compareTo(best) < 0) {
+                best = moved;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Moves every piece where a symmetry puts it
+     * @param destination the cell each cell's piece goes to
+     * @return the moved board
+     */
+    private ChessBitboard transform(int[] destination) {
+        long[] moved = new long[pieces.length];
+        long movedOccupied = 0;
+        for (int kind = 0; kind < pieces.length; kind++) {
+            for (long rest = pieces[kind]; rest != 0; rest &= rest - 1) {
+                moved[kind] |= 1L << destination[Long.numberOfTrailingZeros(rest)];
+            }
+            movedOccupied |= moved[kind];
+        }
+        return new ChessBitboard(attacks, movedOccupied, moved);
+    }
+
+    /**
+     * Orders boards of the same size by their occupied cells, then by the
+     * cells of each kind of piece
+     * @param other the other board
+     * @return negative if this one comes first, 0 if they are equal,
+     * positive otherwise
+     */
+    private int compareTo(ChessBitboard other) {
+        int order = Long.compareUnsigned(occupied, other.occupied);
+        for (int kind = 0; order == 0 && kind < pieces.length; kind++) {
+            order = Long.compareUnsigned(pieces[kind], other.pieces[kind]);
+        }
+        return order;
+    }
+
+    /**
+     * Encodes the board the way {@link ChessConfig#encode()} does: one bit
+     * per cell saying whether it is occupied, followed by the code of each
+     * piece in row-major order.
+     * @return the encoding
+     */
+    @Override
+    public byte[] encode() {
+        int cells = attacks.rows * attacks.cols;
+        byte[] state = new byte[(cells + Long.bitCount(occupied) * ChessConfig.PIECE_BITS + 7) / 8];
+        int position = cells;
+        for (long rest = occupied; rest != 0; rest &= rest - 1) {
+            int cell = Long.numberOfTrailingZeros(rest);
+            CompactConfiguration.writeBits(state, cell, 1, 1);
+            CompactConfiguration.writeBits(state, position, ChessConfig.PIECE_BITS, kindAt(1L << cell));
+            position += ChessConfig.PIECE_BITS;
+        }
+        return state;
+    }
+
+    /**
+     * The encoding leaves out the dimensions of the board
+     * @return the name of the puzzle and the dimensions of the board
+     */
+    @Override
+    public String shape() {
+        return "chess " + attacks.rows + "x" + attacks.cols;
+    }
+
+    /**
+     * Rebuilds a board of the same dimensions from its encoding
+     * @param state the encoding made by {@link #encode()}
+     * @return the board it describes
+     */
+    @Override
+    public ChessBitboard decode(byte[] state) {
+        int cells = attacks.rows * attacks.cols;
+        long decodedOccupied = 0;
+        long[] decoded = new long[pieces.length];
+        int position = cells;
+        for (int cell = 0; cell < cells; cell++) {
+            if (CompactConfiguration.readBits(state, cell, 1) != 0) {
+                decodedOccupied |= 1L << cell;
+                decoded[CompactConfiguration.readBits(state, position, ChessConfig.PIECE_BITS)] |= 1L << cell;
+                position += ChessConfig.PIECE_BITS;
+            }
+        }
+        return new ChessBitboard(attacks, decodedOccupied, decoded);
+    }
+
+    /**
+     * Checks if a chessboard configuration is equal to another
+     * @param other the other board config
+     * @return      true if the two boards are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ChessBitboard o && occupied == o.occupied
+                && attacks == o.attacks && Arrays.equals(pieces, o.pieces);
+    }
+
+    /**
+     * @return the hashcode of the bitboards
+     */
+    @Override
+    public int hashCode() {
+        long hash = occupied;
+        for (long kind : pieces) {
+            hash = hash * 0x9E3779B97F4A7C15L + kind;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Get the string representation of the configuration.
+     * @return the complete string
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append("\n");
+        for (int row = 0; row < attacks.rows; row++) {
+            for (int col = 0; col < attacks.cols; col++) {
+                long bit = 1L << (row * attacks.cols + col);
+                char cell = (occupied & bit) == 0 ? ChessConfig.EMPTY : ChessConfig.PIECES.charAt(kindAt(bit));
+                result.append(cell).append(" ");
+            }
+            result.append("\n");
+        }
+        return result.toString();
+    }
+}
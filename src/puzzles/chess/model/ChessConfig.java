@@ -1,13 +1,20 @@
 package puzzles.chess.model;
 
 import puzzles.common.Coordinates;
+import puzzles.common.GridConfiguration;
+import puzzles.common.GridSymmetry;
+import puzzles.common.solver.CompactConfiguration;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.MonotoneConfiguration;
+import puzzles.common.solver.PrunableConfiguration;
+import puzzles.common.solver.SymmetricConfiguration;
 
 import java.io.BufferedReader;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Represents the current config for the chess board. Thus,
@@ -18,11 +25,8 @@ import java.util.*;
  * @author jolin qiu
  *
  */
-public class ChessConfig implements Configuration {
-    /** dimensions of the chess board's length (number of rows) */
-    public static int LENGTH;
-    /** dimensions of the chess board's width (number of columns) */
-    public static int WIDTH;
+public class ChessConfig extends GridConfiguration implements CompactConfiguration, MonotoneConfiguration,
+        PrunableConfiguration, SymmetricConfiguration {
     /** An empty cell */
     public final static char EMPTY = '.';
     /** A cell occupied with a Bishop */
@@ -37,9 +41,30 @@ public class ChessConfig implements Configuration {
     public final static char QUEEN = 'Q';
     /** A cell occupied with a Rook */
     public final static char ROOK = 'R';
+    /** every piece, in the order their codes are given in an encoding */
+    final static String PIECES = "BKNPQR";
+    /** number of bits used to encode a piece */
+    final static int PIECE_BITS = 3;
+    /** a pawn only captures up the board, so left to right is its only symmetry */
+    final static List<GridSymmetry> PAWN_SYMMETRIES =
+            List.of(GridSymmetry.IDENTITY, GridSymmetry.MIRROR_COLUMNS);
+    /** the turns and flips that fit each board size, by rows and columns */
+    private final static Map<Long, List<GridSymmetry>> SYMMETRIES = new ConcurrentHashMap<>();
 
-    /** the grid of cells that can contain the various chess pieces */
+    /**
+     * the grid of cells that can contain the various chess pieces. Rows are
+     * shared with the boards copied from this one, so a row is copied before
+     * it is changed
+     */
     private char[][] chessBoard;
+    /** dimensions of the chess board's length (number of rows) */
+    private final int length;
+    /** dimensions of the chess board's width (number of columns) */
+    private final int width;
+    /** number of pieces on the board, or -1 until it is counted */
+    private int pieces = -1;
+    /** number of pawns on the board, or -1 until it is counted */
+    private int pawns = -1;
 
 
     /**
@@ -61,16 +86,16 @@ public class ChessConfig implements Configuration {
             // get the field dimensions
             String[] dimensions = in.readLine().split(" ");
             // [4, 4] 0 = number of rows, 1 = number of columns
-            LENGTH = Integer.parseInt(dimensions[0]);
-            WIDTH = Integer.parseInt(dimensions[1]);
+            this.length = Integer.parseInt(dimensions[0]);
+            this.width = Integer.parseInt(dimensions[1]);
             // board configuration / populating the board with chars
-            this.chessBoard = new char[LENGTH][WIDTH];
+            this.chessBoard = new char[length][width];
             // String[] line = in.readLine().split(" ");
             char[] line = in.readLine().replaceAll(" ", "").toCharArray();
 
             // next line = [B . P K]
-            for (int cursorRow = 0; cursorRow < LENGTH; cursorRow++) {
-                for (int cursorCol = 0; cursorCol < WIDTH; cursorCol++) {
+            for (int cursorRow = 0; cursorRow < length; cursorRow++) {
+                for (int cursorCol = 0; cursorCol < width; cursorCol++) {
                     char chessPiece = line[cursorCol];
                     chessBoard[cursorRow][cursorCol] = chessPiece;
                 }
@@ -81,51 +106,158 @@ public class ChessConfig implements Configuration {
             }
             // set the cursor off the board
 
-        } catch (FileNotFoundException e) {
-            System.err.println(e);
-            // handle exception
         }
+        rehash();
     }
 
     /**
      * Copy constructor.
-     * Takes a config, other, and makes a full "deep" copy
-     * of its instance data.
+     * Takes a config, other, and makes a copy that shares
+     * its rows. Neither board changes a shared row, each copies
+     * a row before changing it, so only the rows a move touches
+     * are ever copied.
      * @param other the config to copy
      */
     public ChessConfig(ChessConfig other){
-        // create copy of the board
-        this.chessBoard = new char[LENGTH][WIDTH];
-        for (int row = 0; row < LENGTH; row++){
-            System.arraycopy(other.chessBoard[row], 0,
-                    // width or length?
-                    this.chessBoard[row], 0, WIDTH);
-            }
-        }
+        super(other);
+        this.length = other.length;
+        this.width = other.width;
+        this.chessBoard = other.chessBoard.clone();
+        this.pieces = other.pieces;
+        this.pawns = other.pawns;
+    }
 
 
+    /**
+     * Constructor for a board that has already been filled in, used when
+     * decoding and generating.
+     * @param chessBoard the board, which is not copied
+     */
+    ChessConfig(char[][] chessBoard){
+        this.chessBoard = chessBoard;
+        this.length = chessBoard.length;
+        this.width = length == 0 ? 0 : chessBoard[0].length;
+        rehash();
+    }
+
+    /**
+     * @return the number of rows / length of the board
+     */
+    public int getRows() {
+        return length;
+    }
+
+    /**
+     * @return the number of columns / width of the board
+     */
+    public int getCols() {
+        return width;
+    }
+
     /**
      * When the solution is found there will be one piece remaining on the board.
      * @return true if one piece was remaining, false otherwise
      */
     @Override
     public boolean isSolution() {
-        Stack<Object> piecesLeft = new Stack<>();
-        for (int row = 0; row < LENGTH; row++) {
-            for (int col = 0; col < WIDTH; col++) {
+        return pieceCount() == 1;
+    }
+
+    /**
+     * Counts the pieces on the board the first time it is asked, a board
+     * made by a capture knows it has one fewer than the board before
+     * @return number of pieces on the board
+     */
+    private int pieceCount() {
+        if (pieces < 0) {
+            int count = 0;
+            for (char[] row : chessBoard) {
+                for (char cell : row) {
+                    if (isCaptureTarget(cell)) {
+                        count++;
+                    }
+                }
+            }
+            pieces = count;
+        }
+        return pieces;
+    }
+
+    /**
+     * Every capture takes one piece off the board and no move can be made
+     * with one piece left, so there is one move left per piece but one.
+     * @return number of captures left
+     */
+    @Override
+    public int movesRemaining() {
+        return Math.max(pieceCount() - 1, 0);
+    }
+
+    /**
+     * Is the board split into pieces that can never all meet, see
+     * {@link ChessReachability}?
+     * @return true if it can not be cleared down to one piece
+     */
+    @Override
+    public boolean isDeadEnd() {
+        int[] rows = new int[length * width];
+        int[] cols = new int[rows.length];
+        int[] kinds = new int[rows.length];
+        int count = 0;
+        for (int row = 0; row < length; row++) {
+            for (int col = 0; col < width; col++) {
                 if (isCaptureTarget(chessBoard[row][col])) {
-                    piecesLeft.push(chessBoard[row][col]);
+                    rows[count] = row;
+                    cols[count] = col;
+                    kinds[count++] = PIECES.indexOf(chessBoard[row][col]);
                 }
             }
         }
-        Object testPiece = piecesLeft.pop();
-        if (piecesLeft.isEmpty()) {
-            return true;
-        } else {
-            // put back the piece lol
-            piecesLeft.push(testPiece);
-            return false;
+        return ChessReachability.isDeadEnd(rows, cols, kinds, count);
+    }
+
+    /**
+     * Gets the board that comes first of this one turned and flipped every
+     * way the pieces allow. Without pawns every turn and flip that fits the
+     * board works, with pawns only the left to right mirror does.
+     * @return the canonical form, this board if it already is one
+     */
+    @Override
+    public Configuration canonical() {
+        List<GridSymmetry> symmetries = PAWN_SYMMETRIES;
+        if (pawnCount() == 0) {
+            symmetries = SYMMETRIES.computeIfAbsent((long) length << Integer.SIZE | width, size -> {
+                List<GridSymmetry> fitting = new ArrayList<>();
+                for (GridSymmetry symmetry : GridSymmetry.values()) {
+                    if (symmetry.fits(length, width)) {
+                        fitting.add(symmetry);
+                    }
+                }
+                return List.copyOf(fitting);
+            });
         }
+        GridSymmetry best = GridSymmetry.smallest(chessBoard, symmetries);
+        return best == GridSymmetry.IDENTITY ? this : new ChessConfig(best.apply(chessBoard));
+    }
+
+    /**
+     * Counts the pawns on the board the first time it is asked, a board
+     * made by a capture works it out from the board before
+     * @return number of pawns on the board
+     */
+    private int pawnCount() {
+        if (pawns < 0) {
+            int count = 0;
+            for (char[] row : chessBoard) {
+                for (char cell : row) {
+                    if (cell == PAWN) {
+                        count++;
+                    }
+                }
+            }
+            pawns = count;
+        }
+        return pawns;
     }
 
     /**
@@ -136,51 +268,112 @@ public class ChessConfig implements Configuration {
     @Override
     public Collection<Configuration> getNeighbors() {
         List<Configuration> neighbors = new ArrayList<>();
+        forEachNeighbor(neighbors::add);
+        return neighbors;
+    }
 
-        // for each cell, there is a configuration able to be made
-        for (int row=0; row < LENGTH; row++){
-            for(int col=0; col < WIDTH; col++){
-                Coordinates current = new Coordinates(row, col);
-                // create a copy config and add it to the successor
-                ChessConfig child = new ChessConfig(this);
-                char chessPiece = child.chessBoard[row][col];
-                switch (chessPiece) {
-                    // makes new [chessPiece] configuration(s) at next valid capture coordinates
-                    case BISHOP -> ChessMoves.makeBishopConfigs(neighbors, child, current);
-                    case KING -> ChessMoves.makeKingConfigs(neighbors, child, current);
-                    case KNIGHT -> ChessMoves.makeKnightConfigs(neighbors, child, current);
-                    case PAWN -> ChessMoves.makePawnConfigs(neighbors, child, current);
-                    case QUEEN -> ChessMoves.makeQueenConfigs(neighbors, child, current);
-                    case ROOK -> ChessMoves.makeRookConfigs(neighbors, child, current);
-                    // skip to the next cell where you can find neighbors
-                    default -> {
-                        // the current cell is an EMPTY and doesn't need neighbor configurations made
+    /**
+     * Hands each board one capture away to the sink, piece by piece in
+     * row-major order. Empty cells are skipped without copying the board,
+     * and one buffer of moves is reused for every piece.
+     * @param sink receives each neighbor
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> sink) {
+        int[] moves = new int[ChessMoves.MAX_CAPTURES];
+        for (int row = 0; row < length; row++) {
+            for (int col = 0; col < width; col++) {
+                if (isCaptureTarget(chessBoard[row][col])) {
+                    int count = ChessMoves.captures(this, row, col, moves, 0);
+                    for (int move = 0; move < count; move++) {
+                        sink.accept(capture(moves[move]));
                     }
                 }
             }
         }
-        return neighbors;
     }
 
+    /**
+     * Copies the board with one piece moved onto another. The new board
+     * shares every row with this one but the one or two the capture
+     * changes.
+     * @param move the capture, made by {@link ChessMoves#move}
+     * @return the new board
+     */
+    public ChessConfig capture(int move) {
+        int fromRow = ChessMoves.fromCell(move) / width;
+        int fromCol = ChessMoves.fromCell(move) % width;
+        int toRow = ChessMoves.toCell(move) / width;
+        int toCol = ChessMoves.toCell(move) % width;
+        ChessConfig newChild = new ChessConfig(this);
+        newChild.chessBoard[toRow] = chessBoard[toRow].clone();
+        if (fromRow != toRow) {
+            newChild.chessBoard[fromRow] = chessBoard[fromRow].clone();
+        }
+        newChild.setContents(toRow, toCol, chessBoard[fromRow][fromCol]);
+        newChild.setContents(fromRow, fromCol, EMPTY);
+        newChild.pieces = pieces < 0 ? -1 : pieces - 1;
+        newChild.pawns = pawns < 0 ? -1 : pawns - (chessBoard[toRow][toCol] == PAWN ? 1 : 0);
+        return newChild;
+    }
+
+    /**
+     * Encodes the board as one bit per cell saying whether it is occupied,
+     * followed by the code of each piece in row-major order.
+     * @return the encoding
+     */
+    @Override
+    public byte[] encode() {
+        int cells = length * width;
+        byte[] state = new byte[(cells + pieceCount() * PIECE_BITS + 7) / 8];
+        int position = cells;
+        for (int cell = 0; cell < cells; cell++) {
+            char piece = chessBoard[cell / width][cell % width];
+            if (isCaptureTarget(piece)) {
+                CompactConfiguration.writeBits(state, cell, 1, 1);
+                CompactConfiguration.writeBits(state, position, PIECE_BITS, PIECES.indexOf(piece));
+                position += PIECE_BITS;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * The encoding leaves out the dimensions of the board
+     * @return the name of the puzzle and the dimensions of the board
+     */
+    @Override
+    public String shape() {
+        return "chess " + length + "x" + width;
+    }
 
     /**
-     * Checks if a chessboard configuration is equal to another
-     * @param other the other board config
-     * @return      true if the two boards are equal, false otherwise
+     * Rebuilds a board of the same dimensions from its encoding
+     * @param state the encoding made by {@link #encode()}
+     * @return the board it describes
      */
     @Override
-    public boolean equals(Object other){
-        // type casting obj to ChessConfig
-        ChessConfig o = (ChessConfig) other;
-        return Arrays.deepEquals(this.chessBoard, o.chessBoard);
+    public ChessConfig decode(byte[] state) {
+        int cells = length * width;
+        char[][] board = new char[length][width];
+        int position = cells;
+        for (int cell = 0; cell < cells; cell++) {
+            char piece = EMPTY;
+            if (CompactConfiguration.readBits(state, cell, 1) != 0) {
+                piece = PIECES.charAt(CompactConfiguration.readBits(state, position, PIECE_BITS));
+                position += PIECE_BITS;
+            }
+            board[cell / width][cell % width] = piece;
+        }
+        return new ChessConfig(board);
     }
 
     /**
-     * @return The hashcode of the current string.
+     * @return the grid of cells, which is not copied
      */
     @Override
-    public int hashCode() {
-        return Arrays.deepHashCode(this.chessBoard);
+    protected char[][] cells() {
+        return chessBoard;
     }
 
     /**
@@ -218,15 +411,28 @@ public class ChessConfig implements Configuration {
      * @param piece the chessPiece the cell contents should be set to
      */
     public static void setCell(int row, int col, ChessConfig child, char piece){
-        child.chessBoard[row][col] = piece;
+        child.put(row, col, piece);
     }
 
     /**
      * transfer cell contents for use in the PTUI / GUI
      */
     public static void moveTo(int startRow, int startCol, int endRow, int endCol, ChessConfig child){
-        child.chessBoard[endRow][endCol] = child.chessBoard[startRow][startCol];
-        child.chessBoard[startRow][startCol] = '.';
+        child.put(endRow, endCol, child.chessBoard[startRow][startCol]);
+        child.put(startRow, startCol, EMPTY);
+    }
+
+    /**
+     * Changes a cell, copying its row first since other boards may share it
+     * @param row   the row
+     * @param col   the column
+     * @param piece the new contents of the cell
+     */
+    private void put(int row, int col, char piece){
+        chessBoard[row] = chessBoard[row].clone();
+        setContents(row, col, piece);
+        pieces = -1;
+        pawns = -1;
     }
 
     /**
@@ -0,0 +1,204 @@
+package puzzles.chess.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Makes chess puzzles that are sure to have a solution, by playing a
+ * solution backwards. It starts from one piece and keeps undoing
+ * captures: a piece steps back to an empty cell it could have captured
+ * from, with nothing in the way, and a new piece is put where it stood.
+ * Playing those captures forwards again clears the board down to the
+ * first piece.
+ * <p>
+ * The same seed always makes the same puzzles.
+ * <pre>
+ *     java ChessGenerator rows cols pieces count [seed [directory]]
+ * </pre>
+ * writes count puzzles in the format of data/chess to the directory,
+ * data/generated by default, each named by its size, pieces, seed and
+ * number.
+ *
+ * @author jolin qiu
+ */
+public class ChessGenerator {
+    /** Times a board is started over when no capture can be undone before giving up */
+    private static final int MAX_RESTARTS = 1000;
+    /** Directory puzzles are written to by default */
+    private static final String DIRECTORY = "data/generated";
+
+    /** Where every choice comes from */
+    private final Random random;
+
+    /**
+     * Initialize a generator
+     *
+     * @param seed the seed of its choices
+     */
+    public ChessGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Makes a puzzle that can be solved
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param pieces number of pieces on the board
+     * @return the start of the puzzle
+     * @throws IllegalArgumentException if the pieces do not fit on the
+     * board, or no solvable board of them could be found
+     */
+    public ChessConfig generate(int rows, int cols, int pieces) {
+        if (rows < 1 || cols < 1 || pieces < 1 || pieces > rows * cols) {
+            throw new IllegalArgumentException(pieces + " pieces do not fit on a " + rows + "x" + cols + " board");
+        }
+        char[] board = new char[rows * cols];
+        // the cells of the pieces, and for each step the piece and cell it could step back to
+        int[] occupied = new int[pieces];
+        int[] movers = new int[pieces * ChessMoves.MAX_CAPTURES * Math.max(rows, cols)];
+        int[] origins = new int[movers.length];
+        for (int attempt = 0; attempt < MAX_RESTARTS; attempt++) {
+            Arrays.fill(board, ChessConfig.EMPTY);
+            occupied[0] = random.nextInt(board.length);
+            board[occupied[0]] = randomPiece();
+            int placed = 1;
+            while (placed < pieces) {
+                int choices = 0;
+                for (int piece = 0; piece < placed; piece++) {
+                    choices = origins(board, rows, cols, occupied[piece], piece, movers, origins, choices);
+                }
+                if (choices == 0) {
+                    break;
+                }
+                int choice = random.nextInt(choices);
+                int mover = movers[choice];
+                int to = occupied[mover];
+                board[origins[choice]] = board[to];
+                board[to] = randomPiece();
+                occupied[mover] = origins[choice];
+                occupied[placed++] = to;
+            }
+            if (placed == pieces) {
+                char[][] grid = new char[rows][cols];
+                for (int row = 0; row < rows; row++) {
+                    System.arraycopy(board, row * cols, grid[row], 0, cols);
+                }
+                return new ChessConfig(grid);
+            }
+        }
+        throw new IllegalArgumentException("No solvable " + rows + "x" + cols + " board of " + pieces
+                + " pieces found in " + MAX_RESTARTS + " tries");
+    }
+
+    /**
+     * Picks a kind of piece
+     *
+     * @return the piece
+     */
+    private char randomPiece() {
+        return ChessConfig.PIECES.charAt(random.nextInt(ChessConfig.PIECES.length()));
+    }
+
+    /**
+     * Lists the empty cells a piece could have captured onto its cell from
+     *
+     * @param board the cells of the board, row by row
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param cell the cell of the piece
+     * @param piece the number of the piece
+     * @param movers where the number of the piece is added for each cell
+     * @param origins where each cell is added
+     * @param choices number of cells already listed
+     * @return number of cells listed now
+     */
+    private static int origins(char[] board, int rows, int cols, int cell, int piece,
+                               int[] movers, int[] origins, int choices) {
+        int row = cell / cols;
+        int col = cell % cols;
+        int[][] offsets;
+        boolean slides = false;
+        switch (board[cell]) {
+            case ChessConfig.BISHOP -> { offsets = ChessMoves.BISHOP_RAYS; slides = true; }
+            case ChessConfig.KING -> offsets = ChessMoves.KING_LEAPS;
+            case ChessConfig.KNIGHT -> offsets = ChessMoves.KNIGHT_LEAPS;
+            case ChessConfig.PAWN -> offsets = ChessMoves.PAWN_LEAPS;
+            case ChessConfig.QUEEN -> { offsets = ChessMoves.QUEEN_RAYS; slides = true; }
+            case ChessConfig.ROOK -> { offsets = ChessMoves.ROOK_RAYS; slides = true; }
+            default -> throw new IllegalStateException("No piece on cell " + cell);
+        }
+        for (int[] offset : offsets) {
+            // a capture by this offset came from the opposite side
+            for (int r = row - offset[0], c = col - offset[1];
+                 ChessMoves.isValidBounds(r, c, rows, cols) && board[r * cols + c] == ChessConfig.EMPTY;
+                 r -= offset[0], c -= offset[1]) {
+                movers[choices] = piece;
+                origins[choices++] = r * cols + c;
+                if (!slides) {
+                    break;
+                }
+            }
+        }
+        return choices;
+    }
+
+    /**
+     * Writes a board in the format of the puzzle files
+     *
+     * @param config the board
+     * @return the text of the file
+     */
+    public static String format(ChessConfig config) {
+        StringBuilder text = new StringBuilder();
+        text.append(config.getRows()).append(" ").append(config.getCols()).append("\n");
+        for (int row = 0; row < config.getRows(); row++) {
+            for (int col = 0; col < config.getCols(); col++) {
+                if (col > 0) {
+                    text.append(" ");
+                }
+                text.append(ChessConfig.getCell(row, col, config));
+            }
+            text.append("\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * The main method.
+     * @param args the rows, columns, pieces and number of puzzles, then
+     *             optionally the seed and the directory to write them to
+     */
+    public static void main(String[] args) {
+        if (args.length < 4 || args.length > 6) {
+            System.out.println("Usage: java ChessGenerator rows cols pieces count [seed [directory]]");
+            return;
+        }
+        try {
+            int rows = Integer.parseInt(args[0]);
+            int cols = Integer.parseInt(args[1]);
+            int pieces = Integer.parseInt(args[2]);
+            int count = Integer.parseInt(args[3]);
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+            Path directory = Path.of(args.length > 5 ? args[5] : DIRECTORY);
+            Files.createDirectories(directory);
+            ChessGenerator generator = new ChessGenerator(seed);
+            long begin = System.nanoTime();
+            for (int index = 0; index < count; index++) {
+                String text = format(generator.generate(rows, cols, pieces));
+                Files.writeString(directory.resolve("chess-" + rows + "x" + cols + "-" + pieces + "-"
+                        + seed + "-" + index + ".txt"), text);
+            }
+            System.out.printf("%d boards written to %s, %d ms%n", count, directory,
+                    (System.nanoTime() - begin) / 1_000_000);
+        } catch (NumberFormatException e) {
+            System.out.println("Not a number: " + e.getMessage());
+        } catch (IllegalArgumentException | IOException | UncheckedIOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
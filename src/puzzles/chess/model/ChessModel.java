@@ -3,13 +3,14 @@ package puzzles.chess.model;
 import puzzles.common.Coordinates;
 import puzzles.common.Observer;
 import puzzles.common.solver.Configuration;
-import puzzles.common.solver.Solver;
+import puzzles.common.solver.DepthFirstSolver;
+import puzzles.common.solver.SolutionStore;
+import puzzles.common.solver.SolveBudget;
+import puzzles.common.solver.SolveResult;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -98,17 +99,20 @@ public class ChessModel {
      * the puzzle should advance to the next step in the solution
      * with an indication that it was successful.
      * Otherwise, the puzzle should remain in the same state and indicate
-     * there is no solution.
+     * there is no solution, or that no hint was found within the budget.
      */
     public void hint(){
-        ChessMoves.setPTUI(false);
-        Solver solver = new Solver(currentConfig);
-        ArrayList<Configuration> hints = (ArrayList<Configuration>) solver.solve();
+        DepthFirstSolver solver = new DepthFirstSolver(currentConfig);
+        solver.useStore(SolutionStore.shared());
+        SolveResult result = solver.solve(SolveBudget.HINT);
+        List<Configuration> hints = result.path();
         if (hints != null && hints.size() >= 2){
             currentConfig = (ChessConfig) hints.get(1);
             alertObservers("Next step!");
         } else if (currentConfig.isSolution()) {
             alertObservers("Solved");
+        } else if (result.outcome() == SolveResult.Outcome.BUDGET_EXHAUSTED) {
+            alertObservers("No hint found in time");
         } else {
             alertObservers("No Solution");
         }
@@ -175,13 +179,16 @@ public class ChessModel {
      *                   that has a specific / limited number of moves
      */
     private void chessMoves(int newRow, int newCol, char chessPiece){
-        ChessMoves.setPTUI(true);
-        ArrayList<Object> moves = new ArrayList<>();
-        Collections.addAll(moves, ChessMoves.getValidMoves(chessPiece, currentConfig, currCoordinates).toArray());
+        int[] moves = new int[ChessMoves.MAX_CAPTURES];
+        int count = ChessMoves.captures(currentConfig, currCoordinates.row(), currCoordinates.col(), moves, 0);
+        boolean valid = false;
+        for (int move = 0; move < count; move++) {
+            valid |= ChessMoves.toCell(moves[move]) == newRow * currentConfig.getCols() + newCol;
+        }
 
         newCoordinates = new Coordinates(newRow,  newCol);
         // if the coordinates the user selected is a valid capture to make
-        if (moves.contains(newCoordinates)){
+        if (valid){
             // the board should be updated with an appropriate indication
             ChessConfig.moveTo(currCoordinates.row(), currCoordinates.col(), newRow, newCol, currentConfig);
             alertObservers("Captured from (" + currCoordinates.row() + ", " + currCoordinates.col() +
@@ -211,15 +218,15 @@ public class ChessModel {
     public String toString(){
         StringBuilder gridString = new StringBuilder();
         gridString.append("   ");
-        for(int c = 0; c < currentConfig.WIDTH; c++){
+        for(int c = 0; c < currentConfig.getCols(); c++){
             gridString.append(c).append(" ");
         }
         gridString.append("\n  ");
-        gridString.append("-".repeat(Math.max(0, 2 * currentConfig.WIDTH)));
+        gridString.append("-".repeat(Math.max(0, 2 * currentConfig.getCols())));
         gridString.append("\n");
-        for(int r = 0; r < currentConfig.LENGTH; r++){
+        for(int r = 0; r < currentConfig.getRows(); r++){
             gridString.append(r).append("| ");
-            for(int c = 0; c < currentConfig.LENGTH; c++){
+            for(int c = 0; c < currentConfig.getCols(); c++){
                 gridString.append(getCell(r, c)).append(" ");
             }
             gridString.append("\n");
@@ -231,14 +238,14 @@ public class ChessModel {
      * @return the number of rows / length of the current configuration
      */
     public int getRows(){
-        return currentConfig.LENGTH;
+        return currentConfig.getRows();
     }
 
     /**
      * @return the number of columns / width of the current configuration
      */
     public int getCols(){
-        return currentConfig.WIDTH;
+        return currentConfig.getCols();
     }
 
     /**
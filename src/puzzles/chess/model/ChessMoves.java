@@ -2,7 +2,6 @@ package puzzles.chess.model;
 import puzzles.common.Coordinates;
 import puzzles.common.solver.Configuration;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
 
@@ -12,6 +11,8 @@ import static puzzles.chess.model.ChessConfig.*;
  * Helper class that provides methods to retrieve
  * the valid moves that can be made from various directions, and by each chess piece:
  * Diagonally, anti-diagonal, vertical, horizontal, multiple directions, etc.
+ * Nothing is kept between calls, so boards can be searched on several
+ * threads at once.
  *
  * @author jolin qiu
  */
@@ -19,37 +20,79 @@ import static puzzles.chess.model.ChessConfig.*;
 
 public class ChessMoves {
 
-    /** whether the current program is a PTUI/GUI or Solver determines how coordinates will be
-     * returned */
-    private static boolean isPTUI;
+    // The direction tables below list moves in the order the stack based
+    // helpers hand them out (last pushed first), so both ways of making
+    // neighbors produce them in the same order.
 
-    /** stack of the valid moves a chess piece can make for a given configuration */
-    private static Stack<Coordinates> validMoves;
+    /** directions a BISHOP slides in */
+    static final int[][] BISHOP_RAYS = {{1, -1}, {-1, 1}, {1, 1}, {-1, -1}};
+    /** directions a ROOK slides in */
+    static final int[][] ROOK_RAYS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    /** directions a QUEEN slides in */
+    static final int[][] QUEEN_RAYS = {{1, -1}, {-1, 1}, {1, 1}, {-1, -1},
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    /** squares a KING can capture on, relative to it */
+    static final int[][] KING_LEAPS = {{1, 1}, {1, 0}, {1, -1}, {0, 1},
+            {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
+    /** squares a KNIGHT can capture on, relative to it */
+    static final int[][] KNIGHT_LEAPS = {{-2, -1}, {2, -1}, {2, 1}, {-2, 1},
+            {-1, 2}, {1, 2}, {1, -2}, {-1, -2}};
+    /** squares a PAWN can capture on, relative to it */
+    static final int[][] PAWN_LEAPS = {{-1, 1}, {-1, -1}};
 
+    /** most captures one piece can have: one along each of eight directions, or eight leaps */
+    public static final int MAX_CAPTURES = 8;
+    /** number of bits of a move that hold the cell captured on */
+    private static final int CELL_BITS = 16;
 
     /**
-     * gets the valid moves
-     * @param chessPiece the current chess piece
-     * @param currentConfig the current chess board configuration
-     * @param currCoord the current coordinate to check if spot is valid
-     * @return the stack of the valid coordinates for the given piece configuration
+     * Encodes a capture as an int, the cells being numbered row * columns + column
+     * @param from the cell of the capturing piece
+     * @param to the cell of the captured piece
+     * @return the move
      */
-    public static Stack<Coordinates> getValidMoves(char chessPiece,
-                                                       ChessConfig currentConfig,
-                                                       Coordinates currCoord) {
-        validMoves = new Stack<>();
-//        return validMoves;
-        ArrayList neighbors = new ArrayList<>();
-        switch (chessPiece) {
-            // makes new [chessPiece] configuration(s) at next valid capture coordinates
-            case BISHOP -> ChessMoves.makeBishopConfigs(neighbors, currentConfig, currCoord);
-            case KING -> ChessMoves.makeKingConfigs(neighbors, currentConfig, currCoord);
-            case KNIGHT -> ChessMoves.makeKnightConfigs(neighbors, currentConfig, currCoord);
-            case PAWN -> ChessMoves.makePawnConfigs(neighbors, currentConfig, currCoord);
-            case QUEEN -> ChessMoves.makeQueenConfigs(neighbors, currentConfig, currCoord);
-            case ROOK -> ChessMoves.makeRookConfigs(neighbors, currentConfig, currCoord);
-        }
-        return validMoves;
+    public static int move(int from, int to) {
+        return from << CELL_BITS | to;
+    }
+
+    /**
+     * @param move a move made by {@link #move}
+     * @return the cell of the capturing piece
+     */
+    public static int fromCell(int move) {
+        return move >>> CELL_BITS;
+    }
+
+    /**
+     * @param move a move made by {@link #move}
+     * @return the cell of the captured piece
+     */
+    public static int toCell(int move) {
+        return move & ((1 << CELL_BITS) - 1);
+    }
+
+    /**
+     * Writes the captures of the piece on a cell into a buffer the caller
+     * owns, so nothing is shared between threads and nothing is allocated.
+     * They are written in the order the neighbors of a board are made.
+     *
+     * @param config the current configuration, which is not changed
+     * @param row the row of the piece
+     * @param col the column of the piece
+     * @param moves the buffer, with room for {@link #MAX_CAPTURES} moves from offset
+     * @param offset where the first move is written
+     * @return the number of moves written, 0 for an EMPTY cell
+     */
+    public static int captures(ChessConfig config, int row, int col, int[] moves, int offset) {
+        return switch (ChessConfig.getCell(row, col, config)) {
+            case BISHOP -> slide(config, row, col, BISHOP_RAYS, moves, offset);
+            case KING -> leap(config, row, col, KING_LEAPS, moves, offset);
+            case KNIGHT -> leap(config, row, col, KNIGHT_LEAPS, moves, offset);
+            case PAWN -> leap(config, row, col, PAWN_LEAPS, moves, offset);
+            case QUEEN -> slide(config, row, col, QUEEN_RAYS, moves, offset);
+            case ROOK -> slide(config, row, col, ROOK_RAYS, moves, offset);
+            default -> 0;
+        };
     }
 
     /**
@@ -74,6 +117,42 @@ public class ChessMoves {
         }
     }
 
+    /**
+     * writes a capture of the first piece met along each direction
+     */
+    private static int slide(ChessConfig config, int row, int col, int[][] rays, int[] moves, int offset) {
+        int count = 0;
+        for (int[] ray : rays) {
+            int r = row + ray[0];
+            int c = col + ray[1];
+            while (isValidBounds(r, c, config.getRows(), config.getCols())) {
+                if (ChessConfig.isCaptureTarget(ChessConfig.getCell(r, c, config))) {
+                    moves[offset + count++] = move(row * config.getCols() + col, r * config.getCols() + c);
+                    break;
+                }
+                r += ray[0];
+                c += ray[1];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * writes a capture of any piece sitting on one of the given relative squares
+     */
+    private static int leap(ChessConfig config, int row, int col, int[][] leaps, int[] moves, int offset) {
+        int count = 0;
+        for (int[] leap : leaps) {
+            int r = row + leap[0];
+            int c = col + leap[1];
+            if (isValidBounds(r, c, config.getRows(), config.getCols())
+                    && ChessConfig.isCaptureTarget(ChessConfig.getCell(r, c, config))) {
+                moves[offset + count++] = move(row * config.getCols() + col, r * config.getCols() + c);
+            }
+        }
+        return count;
+    }
+
     /** retrieves the coordinates for use in making neighbors for a BISHOP configuration
      * @param neighbors the neighbors to update
      * @param child the configuration
@@ -81,162 +160,146 @@ public class ChessMoves {
      */
     public static void makeBishopConfigs(List<Configuration> neighbors, ChessConfig child, Coordinates current){
         // new bishop configuration(s) at the next valid capture coordinate
-//        Stack<Coordinates> validMoves = ChessMoves.getValidDiagonals(child, current);
-        validMoves = ChessMoves.getValidDiagonals(child, current);
-        if (!isPTUI){
-            getConfigurations(neighbors, child, validMoves, BISHOP, current);
-        }
+        Stack<Coordinates> moves = ChessMoves.getValidDiagonals(child, current);
+        getConfigurations(neighbors, child, moves, BISHOP, current);
     }
 
     /** retrieves the coordinates for use in making neighbors for a ROOK configuration */
     public static void makeRookConfigs(List<Configuration> neighbors, ChessConfig child, Coordinates current) {
-//        Stack<Coordinates> validMoves = ChessMoves.getValidHorizontals(child, current);
-        validMoves = ChessMoves.getValidHorizontals(child, current);
-        validMoves.addAll(ChessMoves.getValidVerticals(child, current));
-        if (!isPTUI){
-            getConfigurations(neighbors, child, validMoves, ChessConfig.ROOK, current);
-        }
+        Stack<Coordinates> moves = ChessMoves.getValidHorizontals(child, current);
+        moves.addAll(ChessMoves.getValidVerticals(child, current));
+        getConfigurations(neighbors, child, moves, ChessConfig.ROOK, current);
     }
 
     /** retrieves the coordinates for use in making neighbors for a QUEEN configuration */
     public static void makeQueenConfigs(List<Configuration> neighbors, ChessConfig child, Coordinates current) {
-//        Stack<Coordinates> validMoves = ChessMoves.getValidHorizontals(child, current);
-        validMoves = ChessMoves.getValidHorizontals(child, current);
-        validMoves.addAll(ChessMoves.getValidVerticals(child, current));
-        validMoves.addAll(ChessMoves.getValidDiagonals(child, current));
-        if (!isPTUI){
-            getConfigurations(neighbors, child, validMoves, ChessConfig.QUEEN, current);
-        }
+        Stack<Coordinates> moves = ChessMoves.getValidHorizontals(child, current);
+        moves.addAll(ChessMoves.getValidVerticals(child, current));
+        moves.addAll(ChessMoves.getValidDiagonals(child, current));
+        getConfigurations(neighbors, child, moves, ChessConfig.QUEEN, current);
     }
 
     /** retrieves the coordinates for use in making neighbors for a PAWN configuration */
     public static void makePawnConfigs(List<Configuration> neighbors, ChessConfig child, Coordinates current) {
-        validMoves = new Stack<>();
+        Stack<Coordinates> moves = new Stack<>();
         // fwd spots will always be pawn's current row -1
         int row = current.row();
         int col = current.col();
         // left diagonal = cur[col] -1
-        if (ChessMoves.isValidBounds( row-1, col-1, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds( row-1, col-1, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row-1, col-1, child))){
-                validMoves.push(new Coordinates(row-1, col-1));
+                moves.push(new Coordinates(row-1, col-1));
             }
         }
         // right diagonal = cur[Col] + 1
-        if (ChessMoves.isValidBounds(row-1, col+1, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(row-1, col+1, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row-1, col+1, child))){
-                validMoves.push(new Coordinates(row-1, col+1));
+                moves.push(new Coordinates(row-1, col+1));
             }
         }
-        if (!isPTUI){
-            getConfigurations(neighbors, child, validMoves, ChessConfig.PAWN, current);
-
-        }
+        getConfigurations(neighbors, child, moves, ChessConfig.PAWN, current);
     }
 
     /** retrieves the coordinates for use in making neighbors for a KNIGHT configuration */
     public static void makeKnightConfigs(List<Configuration> neighbors, ChessConfig child, Coordinates current) {
-        validMoves = new Stack<>();
+        Stack<Coordinates> moves = new Stack<>();
 
         int row = current.row();
         int col = current.col();
 
-        if (isValidBounds(row - 1, col - 2, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        if (isValidBounds(row - 1, col - 2, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row-1, col-2, child))){
-                validMoves.push(new Coordinates(row-1, col-2));
+                moves.push(new Coordinates(row-1, col-2));
             }
         }
-        if (isValidBounds(row + 1, col - 2, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        if (isValidBounds(row + 1, col - 2, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row+1, col-2, child))){
-                validMoves.push(new Coordinates(row+1, col-2));
+                moves.push(new Coordinates(row+1, col-2));
             }
         }
-        if (isValidBounds(row + 1, col + 2, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        if (isValidBounds(row + 1, col + 2, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row+1, col+2, child))){
-                validMoves.push(new Coordinates(row+1, col+2));
+                moves.push(new Coordinates(row+1, col+2));
             }
         }
-        if (isValidBounds(row - 1,col + 2, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        if (isValidBounds(row - 1,col + 2, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row-1, col+2, child))){
-                validMoves.push(new Coordinates(row-1, col+2));
+                moves.push(new Coordinates(row-1, col+2));
             }
         }
-        if (isValidBounds(row - 2, col + 1, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        if (isValidBounds(row - 2, col + 1, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row-2, col+1, child))){
-                validMoves.push(new Coordinates(row-2, col+1));
+                moves.push(new Coordinates(row-2, col+1));
             }
         }
-        if (isValidBounds(row + 2, col + 1, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        if (isValidBounds(row + 2, col + 1, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row+2, col+1, child))){
-                validMoves.push(new Coordinates(row+2, col+1));
+                moves.push(new Coordinates(row+2, col+1));
             }
         }
-        if (isValidBounds(row + 2, col - 1, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        if (isValidBounds(row + 2, col - 1, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row+2, col-1, child))){
-                validMoves.push(new Coordinates(row+2, col-1));
+                moves.push(new Coordinates(row+2, col-1));
             }
         }
-        if (isValidBounds(row - 2, col - 1, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        if (isValidBounds(row - 2, col - 1, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row-2, col-1, child))){
-                validMoves.push(new Coordinates(row-2, col-1));
+                moves.push(new Coordinates(row-2, col-1));
             }
         }
-        if (!isPTUI){
-            getConfigurations(neighbors, child, validMoves, KNIGHT, current);
-        }
+        getConfigurations(neighbors, child, moves, KNIGHT, current);
     }
 
 
     /** retrieves the coordinates for use in making neighbors for a KING configuration */
     public static void makeKingConfigs(List<Configuration> neighbors, ChessConfig child, Coordinates current) {
-        validMoves = new Stack<>();
+        Stack<Coordinates> moves = new Stack<>();
         int i = current.row();
         int j = current.col();
 
         // Checking for all the possible adjacent positions
-        if (ChessMoves.isValidBounds(i - 1, j - 1, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(i - 1, j - 1, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(i-1, j-1, child))){
-                validMoves.push(new Coordinates(i-1, j-1));
+                moves.push(new Coordinates(i-1, j-1));
             }
         }
-        if (ChessMoves.isValidBounds(i - 1, j, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(i - 1, j, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(i-1, j, child))){
-                validMoves.push(new Coordinates(i-1, j));
+                moves.push(new Coordinates(i-1, j));
             }
         }
-        if (ChessMoves.isValidBounds(i - 1, j + 1, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(i - 1, j + 1, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(i-1, j+1, child))){
-                validMoves.push(new Coordinates(i-1, j+1));
+                moves.push(new Coordinates(i-1, j+1));
             }
         }
-        if (ChessMoves.isValidBounds(i, j - 1, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(i, j - 1, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(i, j-1, child))){
-                validMoves.push(new Coordinates(i, j-1));
+                moves.push(new Coordinates(i, j-1));
             }
         }
-        if (ChessMoves.isValidBounds(i, j + 1, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(i, j + 1, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(i, j+1, child))){
-                validMoves.push(new Coordinates(i, j+1));
+                moves.push(new Coordinates(i, j+1));
             }
         }
-        if (ChessMoves.isValidBounds(i + 1, j - 1, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(i + 1, j - 1, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(i+1, j-1, child))){
-                validMoves.push(new Coordinates(i+1, j-1));
+                moves.push(new Coordinates(i+1, j-1));
             }
         }
-        if (ChessMoves.isValidBounds(i + 1, j, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(i + 1, j, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(i+1, j, child))){
-                validMoves.push(new Coordinates(i+1, j));
+                moves.push(new Coordinates(i+1, j));
             }
         }
-        if (ChessMoves.isValidBounds(i + 1, j + 1, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        if (ChessMoves.isValidBounds(i + 1, j + 1, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(i+1, j+1, child))){
-                validMoves.push(new Coordinates(i+1, j+1));
+                moves.push(new Coordinates(i+1, j+1));
             }
         }
         // returning the neighbors
-        if (!isPTUI){
-            getConfigurations(neighbors, child, validMoves, KING, current);
-        }
+        getConfigurations(neighbors, child, moves, KING, current);
     }
 
     /**
@@ -264,7 +327,7 @@ public class ChessMoves {
         // upper diagonal
         int row = current.row();
         int col = current.col();
-        while(isValidBounds(--row, --col, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        while(isValidBounds(--row, --col, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row, col, child))) {
                 validDiagonalMoves.push(new Coordinates(row, col));
                 // as soon as first capture target is found don't continue since you cannot skip pieces
@@ -274,7 +337,7 @@ public class ChessMoves {
         // lower diagonal
         row = current.row();
         col = current.col();
-        while(isValidBounds(++row, ++col, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        while(isValidBounds(++row, ++col, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row, col, child))) {
                 validDiagonalMoves.push(new Coordinates(row, col));
                 break;
@@ -284,7 +347,7 @@ public class ChessMoves {
         // upper diagonal
         row = current.row();
         col = current.col();
-        while(isValidBounds(--row, ++col, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        while(isValidBounds(--row, ++col, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row, col, child))) {
                 validDiagonalMoves.push(new Coordinates(row, col));
                 break;
@@ -293,7 +356,7 @@ public class ChessMoves {
         // lower diagonal
         row = current.row();
         col = current.col();
-        while(isValidBounds(++row, --col, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        while(isValidBounds(++row, --col, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row, col, child))) {
                 validDiagonalMoves.push(new Coordinates(row, col));
                 break;
@@ -309,14 +372,14 @@ public class ChessMoves {
         Stack<Coordinates> validHorizontals = new Stack<>();
         int row = current.row();
         int col = current.col();
-        while(isValidBounds(row, ++col, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        while(isValidBounds(row, ++col, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row, col, child))){
                 validHorizontals.push(new Coordinates(row, col));
                 break;
             }
         }
         col = current.col();
-        while(isValidBounds(row, --col, ChessConfig.LENGTH, ChessConfig.WIDTH)){
+        while(isValidBounds(row, --col, child.getRows(), child.getCols())){
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row, col, child))){
                 validHorizontals.push(new Coordinates(row, col));
                 break;
@@ -333,7 +396,7 @@ public class ChessMoves {
         int row = current.row();
         int col = current.col();
         // check the upper verticals : constant columns, incrementing rows
-        while (isValidBounds(++row, col, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        while (isValidBounds(++row, col, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row, col, child))) {
                 validVerticals.push(new Coordinates(row, col));
                 break;
@@ -341,7 +404,7 @@ public class ChessMoves {
         }
         // check the lower verticals : constant columns, decrementing rows
         row = current.row();
-        while (isValidBounds(--row, col, ChessConfig.LENGTH, ChessConfig.WIDTH)) {
+        while (isValidBounds(--row, col, child.getRows(), child.getCols())) {
             if (ChessConfig.isCaptureTarget(ChessConfig.getCell(row, col, child))) {
                 validVerticals.push(new Coordinates(row, col));
                 break;
@@ -349,12 +412,4 @@ public class ChessMoves {
         }
         return validVerticals;
     }
-
-    /**
-     * is the program running a PTUI?
-     * @param PTUI boolean
-     */
-    public static void setPTUI(boolean PTUI) {
-        isPTUI = PTUI;
-    }
 }
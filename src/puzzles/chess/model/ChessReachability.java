@@ -0,0 +1,125 @@
+package puzzles.chess.model;
+
+/**
+ * Tells when a board can no longer be cleared down to one piece, by
+ * working out which pieces could ever meet. A piece only ever moves by
+ * capturing onto a cell that is occupied now, so every cell it can ever
+ * stand on is one of today's occupied cells that it reaches by a chain of
+ * captures, ignoring whatever might block them. Two pieces can only ever
+ * take part in the same capture if one of them can reach the other's
+ * start or a cell the other can reach.
+ * <p>
+ * Every capture joins two pieces that could meet, so a board can only be
+ * solved if all of its pieces are joined by them. A piece that can never
+ * capture nor be captured, like a pawn with nothing up the board from it,
+ * or two groups that never reach each other, leaves a piece behind in
+ * each part. The colour a bishop stays on and the rows a pawn can climb
+ * to fall out of the chains of captures without being checked for
+ * separately.
+ *
+ * @author jolin qiu
+ */
+final class ChessReachability {
+    /**
+     * Not made, it only has static methods
+     */
+    private ChessReachability() {
+    }
+
+    /**
+     * Is a board certain to leave more than one piece behind?
+     *
+     * @param rows the row of each piece
+     * @param cols the column of each piece
+     * @param kinds the index in {@link ChessConfig#PIECES} of each piece
+     * @param count number of pieces
+     * @return true if the pieces fall into parts that never meet, false
+     * if they might all meet or there are more than 64 pieces
+     */
+    static boolean isDeadEnd(int[] rows, int[] cols, int[] kinds, int count) {
+        if (count < 2 || count > Long.SIZE) {
+            return false;
+        }
+        // the pieces each kind could capture from each piece's cell, by kind
+        long[][] targets = new long[ChessConfig.PIECES.length()][];
+        // the cells each piece could ever capture onto
+        long[] reach = new long[count];
+        for (int piece = 0; piece < count; piece++) {
+            int kind = kinds[piece];
+            if (targets[kind] == null) {
+                targets[kind] = targets(ChessConfig.PIECES.charAt(kind), rows, cols, count);
+            }
+            long reached = targets[kind][piece];
+            for (long frontier = reached; frontier != 0; ) {
+                long next = 0;
+                for (long rest = frontier; rest != 0; rest &= rest - 1) {
+                    next |= targets[kind][Long.numberOfTrailingZeros(rest)];
+                }
+                frontier = next & ~reached;
+                reached |= next;
+            }
+            reach[piece] = reached;
+        }
+        long all = count == Long.SIZE ? -1L : (1L << count) - 1;
+        long joined = 1L;
+        for (long unchecked = joined; unchecked != 0; ) {
+            int piece = Long.numberOfTrailingZeros(unchecked);
+            unchecked &= unchecked - 1;
+            long pieceCells = reach[piece] | (1L << piece);
+            for (long rest = all & ~joined; rest != 0; rest &= rest - 1) {
+                int other = Long.numberOfTrailingZeros(rest);
+                if ((reach[piece] & (reach[other] | (1L << other))) != 0 || (reach[other] & pieceCells) != 0) {
+                    joined |= 1L << other;
+                    unchecked |= 1L << other;
+                }
+            }
+        }
+        return joined != all;
+    }
+
+    /**
+     * Works out which cells one kind of piece could capture onto from each
+     * cell, if nothing were in the way
+     *
+     * @param kind the kind of piece
+     * @param rows the row of each occupied cell
+     * @param cols the column of each occupied cell
+     * @param count number of occupied cells
+     * @return the occupied cells captured onto from each occupied cell, one
+     * bit per cell in the order given
+     */
+    private static long[] targets(char kind, int[] rows, int[] cols, int count) {
+        long[] targets = new long[count];
+        for (int from = 0; from < count; from++) {
+            for (int to = 0; to < count; to++) {
+                if (to != from && attacks(kind, rows[to] - rows[from], cols[to] - cols[from])) {
+                    targets[from] |= 1L << to;
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Could a piece capture a piece a given offset away, if nothing were in
+     * the way? Matches the rays and leaps of {@link ChessMoves}.
+     *
+     * @param kind the kind of piece
+     * @param dr rows from the piece to the other, negative is up the board
+     * @param dc columns from the piece to the other
+     * @return true if it could, false otherwise
+     */
+    private static boolean attacks(char kind, int dr, int dc) {
+        boolean diagonal = dr != 0 && Math.abs(dr) == Math.abs(dc);
+        boolean straight = (dr == 0) != (dc == 0);
+        return switch (kind) {
+            case ChessConfig.BISHOP -> diagonal;
+            case ChessConfig.KING -> Math.max(Math.abs(dr), Math.abs(dc)) == 1;
+            case ChessConfig.KNIGHT -> Math.abs(dr * dc) == 2;
+            case ChessConfig.PAWN -> dr == -1 && Math.abs(dc) == 1;
+            case ChessConfig.QUEEN -> diagonal || straight;
+            case ChessConfig.ROOK -> straight;
+            default -> false;
+        };
+    }
+}
@@ -1,4 +1,5 @@
 package puzzles.chess.solver;
+import puzzles.chess.model.ChessBitboard;
 import puzzles.chess.model.ChessConfig;
 import puzzles.common.solver.Configuration;
 import puzzles.common.solver.Solver;
@@ -28,6 +29,8 @@ import java.util.Collection;
  * Unlike real chess, you can have many duplicate pieces of the same kind.
  * When the solution is found there will be one piece remaining on the board
  * .
+ * Boards of at most 64 cells are solved as bitboards, which is quicker
+ * and finds the same solution.
  * @author jolin qiu
  */
 public class Chess {
@@ -42,7 +45,9 @@ public class Chess {
                 System.out.print(initialConfig);
 
                 // solve the puzzle
-                Solver solver = new Solver(initialConfig);
+                Solver solver = ChessBitboard.fits(initialConfig.getRows(), initialConfig.getCols())
+                        ? new Solver(new ChessBitboard(initialConfig))
+                        : new Solver(initialConfig);
 
                 // display the solution
                 int step = 0;
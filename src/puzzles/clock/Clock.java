@@ -1,6 +1,7 @@
 package puzzles.clock;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.FrontierSolver;
 import puzzles.common.solver.Solver;
 
 import java.util.Collection;
@@ -8,18 +9,32 @@ import java.util.Collection;
 public class Clock {
     public static void main(String[] args) {
         if (args.length < 2) {
-            System.out.println(("Usage: java Clock hours stop end"));
+            System.out.println(("Usage: java Clock hours stop end [frontier]"));
         } else {
             int hours = Integer.parseInt(args[0]);
             int start = Integer.parseInt(args[1]);
             int end = Integer.parseInt(args[2]);
             ClockConfig clock = new ClockConfig(hours, start, end);
-            Solver solver = new Solver(clock);
+            // frontier search keeps only three layers, for puzzles too big to remember
+            boolean frontier = args.length > 3 && args[3].equals("frontier");
+            Collection<Configuration> solved;
+            int totalConfigs;
+            int uniqueConfigs;
+            if (frontier) {
+                FrontierSolver solver = new FrontierSolver(clock);
+                solved = solver.solve();
+                totalConfigs = solver.getTotalConfigs();
+                uniqueConfigs = solver.getUniqueConfigs();
+            } else {
+                Solver solver = new Solver(clock);
+                solved = solver.solve();
+                totalConfigs = solver.getTotalConfigs();
+                uniqueConfigs = solver.getUniqueConfigs();
+            }
             int step = 0;
-            Collection<Configuration> solved = solver.solve();
             System.out.println("Hours: " + hours + ", Start: " + start + ", End: " + end);
-            System.out.println("Total configs: " + solver.getTotalConfigs());
-            System.out.println("Unique configs: " + solver.getUniqueConfigs());
+            System.out.println("Total configs: " + totalConfigs);
+            System.out.println("Unique configs: " + uniqueConfigs);
             if(solved != null){
                 for(Configuration hour : solved){
                     System.out.println("Step " + step + ": " + hour);
@@ -1,16 +1,24 @@
 package puzzles.clock;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.HeuristicConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class ClockConfig implements Configuration{
+public class ClockConfig implements ReversibleConfiguration, HeuristicConfiguration{
     /** number of hours the clock has */
     private final int hours;
     /** starting hour */
     private final int start;
     /** ending hour */
     private final int end;
+    /** hour the puzzle started from, which bounds the hours the hand can reach */
+    private final int origin;
 
     /**
      * Constructs the initial configuration from the hours, start, and end
@@ -20,9 +28,23 @@ public class ClockConfig implements Configuration{
      * @param end ending hour
      */
     public ClockConfig(int hours, int start, int end){
+        this(hours, start, end, start);
+    }
+
+    /**
+     * Constructs a configuration reached from the hour the puzzle started
+     * from
+     *
+     * @param hours number of hours the clock has
+     * @param start current hour
+     * @param end ending hour
+     * @param origin hour the puzzle started from
+     */
+    private ClockConfig(int hours, int start, int end, int origin){
         this.hours = hours;
         this.start = start;
         this.end = end;
+        this.origin = origin;
     }
 
     /**
@@ -43,6 +65,17 @@ public class ClockConfig implements Configuration{
     @Override
     public Collection<Configuration> getNeighbors() {
         Collection<Configuration> neighborsList = new ArrayList<>();
+        forEachNeighbor(neighborsList::add);
+        return neighborsList;
+    }
+
+    /**
+     * Hands the clock one hour back, then one hour forward, to the sink
+     *
+     * @param sink receives each neighbor
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> sink) {
         int up = start + 1;
         int down = start - 1;
         if(up > hours){
@@ -50,11 +83,114 @@ public class ClockConfig implements Configuration{
         } else if(down <= 0){
             down = hours;
         }
-        ClockConfig forward = new ClockConfig(hours, up, end);
-        ClockConfig backward = new ClockConfig(hours, down, end);
-        neighborsList.add(backward);
-        neighborsList.add(forward);
-        return neighborsList;
+        sink.accept(new ClockConfig(hours, down, end, origin));
+        sink.accept(new ClockConfig(hours, up, end, origin));
+    }
+
+    /**
+     * Get the collection of hours that can reach the current one. A hand
+     * set below 1 can only climb towards it or jump to the last hour, and
+     * one set past the last hour can only fall towards it or jump to 1, so
+     * moves out of them cannot be undone. The hour is traced back to every
+     * hour that steps into it, keeping only those the hand could have been
+     * on since the start.
+     *
+     * @return all predecessors
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        Set<Integer> candidates = new LinkedHashSet<>(List.of(start - 1, start + 1));
+        // every hour past one end of the clock jumps to the other end
+        if(start == 1){
+            for(int previous = hours; previous <= highest(); previous++){
+                candidates.add(previous);
+            }
+        }
+        if(start == hours){
+            for(int previous = lowest(); previous <= 1; previous++){
+                candidates.add(previous);
+            }
+        }
+        Collection<Configuration> predecessorsList = new ArrayList<>();
+        for(int previous : candidates){
+            if(previous >= lowest() && previous <= highest() && steps(previous, start)){
+                predecessorsList.add(new ClockConfig(hours, previous, end, origin));
+            }
+        }
+        return predecessorsList;
+    }
+
+    /**
+     * Can the hand go from one hour to another in a single move?
+     *
+     * @param from the hour before the move
+     * @param to the hour after the move
+     * @return true if {@link #forEachNeighbor} would make that change
+     */
+    private boolean steps(int from, int to) {
+        int up = from + 1;
+        int down = from - 1;
+        if(up > hours){
+            up = 1;
+        } else if(down <= 0){
+            down = hours;
+        }
+        return up == to || down == to;
+    }
+
+    /**
+     * A one hour clock only wraps forward, so moving it back leaves it on 0
+     *
+     * @return 1, 0 on a one hour clock, or the starting hour if it is lower
+     */
+    private int lowest() {
+        return Math.min(origin, hours == 1 ? 0 : 1);
+    }
+
+    /**
+     * @return the last hour, or the starting hour if it is past it
+     */
+    private int highest() {
+        return Math.max(origin, hours);
+    }
+
+    /**
+     * Moving the hand either way around the clock can always be undone, so
+     * only a hand that started off the clock has moves that cannot
+     *
+     * @return true if the hand started on the clock, false otherwise
+     */
+    @Override
+    public boolean isUndoable() {
+        return origin >= 1 && origin <= hours;
+    }
+
+    /**
+     * Get the only clock that is a solution, the one set to the ending
+     * hour, if the hand can reach it at all. It cannot when the ending
+     * hour is off the clock and not one the hand passes on the way from
+     * the start.
+     *
+     * @return the goal clock, or nothing if it cannot be reached
+     */
+    @Override
+    public Collection<Configuration> getGoals() {
+        if(end < lowest() || end > highest()){
+            return List.of();
+        }
+        return List.of(new ClockConfig(hours, end, end, origin));
+    }
+
+    /**
+     * The hand moves one hour at a time, so it needs at least the shorter
+     * of the two ways around the clock to reach the ending hour
+     *
+     * @return number of hours between start and end the short way around
+     */
+    @Override
+    public int estimate() {
+        int apart = Math.abs(start - end);
+        return Math.min(apart, hours - apart);
     }
 
     /**
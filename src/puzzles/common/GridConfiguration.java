@@ -0,0 +1,108 @@
+package puzzles.common;
+
+import puzzles.common.solver.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * A configuration kept as a grid of characters, hashed the Zobrist way:
+ * every cell with given contents has its own 64 bit key, and the hash of
+ * a board is all the keys of its cells xor-ed together. Changing one cell
+ * only takes xor-ing out the key of what was there and xor-ing in the key
+ * of what is there now, so a board one move away is hashed as it is made
+ * instead of by reading every cell again.
+ * <p>
+ * The hash is kept in the board, and boards are only compared cell by
+ * cell once their hashes match. Each key is worked out by mixing the row,
+ * the column and the contents with the SplitMix64 finalizer instead of
+ * being a random number kept in a table, so boards of every size share
+ * them.
+ *
+ * @author Tiffany Lee
+ */
+public abstract class GridConfiguration implements Configuration {
+    /** the keys of every cell xor-ed together */
+    private long zobrist;
+
+    /**
+     * Starts a board with no hash, the subclass calls {@link #rehash}
+     * once its grid is filled in
+     */
+    protected GridConfiguration() {
+    }
+
+    /**
+     * Starts a copy of a board with the same hash
+     * @param other the board being copied
+     */
+    protected GridConfiguration(GridConfiguration other) {
+        this.zobrist = other.zobrist;
+    }
+
+    /**
+     * @return the grid of cells, which is not copied
+     */
+    protected abstract char[][] cells();
+
+    /**
+     * Gets the key of a cell with some contents
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param contents what is on the cell
+     * @return the key
+     */
+    private static long key(int row, int col, char contents) {
+        long z = ((long) row << 40 | (long) col << 20 | contents) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Hashes the whole grid again, after it has been filled in or replaced
+     */
+    protected final void rehash() {
+        char[][] cells = cells();
+        long hash = 0;
+        for (int row = 0; row < cells.length; row++) {
+            for (int col = 0; col < cells[row].length; col++) {
+                hash ^= key(row, col, cells[row][col]);
+            }
+        }
+        zobrist = hash;
+    }
+
+    /**
+     * Changes what is on a cell, keeping the hash up to date
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param contents what is on the cell now
+     */
+    protected final void setContents(int row, int col, char contents) {
+        char[][] cells = cells();
+        zobrist ^= key(row, col, cells[row][col]) ^ key(row, col, contents);
+        cells[row][col] = contents;
+    }
+
+    /**
+     * Checks if a board is the same as another, by hash first and then
+     * cell by cell
+     * @param other the other board
+     * @return true if they are the same kind of board with the same cells,
+     * false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other != null && other.getClass() == getClass()
+                && zobrist == ((GridConfiguration) other).zobrist
+                && Arrays.deepEquals(cells(), ((GridConfiguration) other).cells());
+    }
+
+    /**
+     * @return the hash of the cells folded into an int
+     */
+    @Override
+    public int hashCode() {
+        return (int) (zobrist ^ (zobrist >>> 32));
+    }
+}
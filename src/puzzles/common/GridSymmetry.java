@@ -0,0 +1,147 @@
+package puzzles.common;
+
+import java.util.List;
+
+/**
+ * The eight ways a rectangular grid can be turned or flipped onto itself.
+ * The four that swap rows with columns only fit square grids. Each one
+ * says which cell of the original grid ends up at a given cell of the
+ * transformed grid.
+ *
+ * @author Tiffany Lee
+ */
+public enum GridSymmetry {
+    /** leaves the grid as it is */
+    IDENTITY(false),
+    /** flips the grid left to right */
+    MIRROR_COLUMNS(false),
+    /** flips the grid top to bottom */
+    MIRROR_ROWS(false),
+    /** turns the grid half way around */
+    ROTATE_180(false),
+    /** flips the grid over its main diagonal */
+    TRANSPOSE(true),
+    /** flips the grid over its other diagonal */
+    ANTI_TRANSPOSE(true),
+    /** turns the grid a quarter clockwise */
+    ROTATE_90(true),
+    /** turns the grid a quarter counterclockwise */
+    ROTATE_270(true);
+
+    /** Does it swap rows with columns? */
+    private final boolean swapsAxes;
+
+    /**
+     * @param swapsAxes does it swap rows with columns?
+     */
+    GridSymmetry(boolean swapsAxes) {
+        this.swapsAxes = swapsAxes;
+    }
+
+    /**
+     * Can it map a grid of the given size onto itself?
+     *
+     * @param rows number of rows of the grid
+     * @param cols number of columns of the grid
+     * @return true if it fits, false otherwise
+     */
+    public boolean fits(int rows, int cols) {
+        return !swapsAxes || rows == cols;
+    }
+
+    /**
+     * Gets the row of the original grid that ends up at a cell
+     *
+     * @param r row of the transformed grid
+     * @param c column of the transformed grid
+     * @param rows number of rows of the grid
+     * @param cols number of columns of the grid
+     * @return the row it came from
+     */
+    public int sourceRow(int r, int c, int rows, int cols) {
+        return switch (this) {
+            case IDENTITY, MIRROR_COLUMNS -> r;
+            case MIRROR_ROWS, ROTATE_180 -> rows - 1 - r;
+            case TRANSPOSE, ROTATE_270 -> c;
+            case ANTI_TRANSPOSE, ROTATE_90 -> cols - 1 - c;
+        };
+    }
+
+    /**
+     * Gets the column of the original grid that ends up at a cell
+     *
+     * @param r row of the transformed grid
+     * @param c column of the transformed grid
+     * @param rows number of rows of the grid
+     * @param cols number of columns of the grid
+     * @return the column it came from
+     */
+    public int sourceCol(int r, int c, int rows, int cols) {
+        return switch (this) {
+            case IDENTITY, MIRROR_ROWS -> c;
+            case MIRROR_COLUMNS, ROTATE_180 -> cols - 1 - c;
+            case TRANSPOSE, ROTATE_90 -> r;
+            case ANTI_TRANSPOSE, ROTATE_270 -> rows - 1 - r;
+        };
+    }
+
+    /**
+     * Finds which of some symmetries turns a grid into the one that comes
+     * first reading the cells in row-major order. Every grid a symmetry
+     * away from another picks the same smallest grid, so that grid stands
+     * for all of them.
+     *
+     * @param grid the grid
+     * @param symmetries the symmetries to try, all fitting the grid
+     * @return the symmetry giving the smallest grid
+     */
+    public static GridSymmetry smallest(char[][] grid, List<GridSymmetry> symmetries) {
+        int rows = grid.length;
+        int cols = rows == 0 ? 0 : grid[0].length;
+        GridSymmetry best = IDENTITY;
+        for (GridSymmetry symmetry : symmetries) {
+            if (compare(grid, symmetry, best, rows, cols) < 0) {
+                best = symmetry;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Builds the grid it turns a grid into
+     *
+     * @param grid the grid, which is not changed
+     * @return the transformed grid
+     */
+    public char[][] apply(char[][] grid) {
+        int rows = grid.length;
+        int cols = rows == 0 ? 0 : grid[0].length;
+        char[][] transformed = new char[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                transformed[r][c] = grid[sourceRow(r, c, rows, cols)][sourceCol(r, c, rows, cols)];
+            }
+        }
+        return transformed;
+    }
+
+    /**
+     * Compares the grids two symmetries turn a grid into, cell by cell in
+     * row-major order, without building either of them
+     *
+     * @return negative if the first comes first, 0 if they are the same,
+     * positive otherwise
+     */
+    private static int compare(char[][] grid, GridSymmetry first, GridSymmetry second, int rows, int cols) {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                char a = grid[first.sourceRow(r, c, rows, cols)][first.sourceCol(r, c, rows, cols)];
+                char b = grid[second.sourceRow(r, c, rows, cols)][second.sourceCol(r, c, rows, cols)];
+                if (a != b) {
+                    return a - b;
+                }
+            }
+        }
+        return 0;
+    }
+}
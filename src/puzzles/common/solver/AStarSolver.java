@@ -0,0 +1,120 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A best first search that always expands the queued configuration with
+ * the smallest number of moves made plus estimated moves left. Because
+ * the estimate never overshoots, the first solution taken off the queue
+ * is a shortest one.
+ *
+ * @author Tiffany Lee
+ */
+public class AStarSolver {
+    /**
+     * A configuration waiting in the queue
+     *
+     * @param config the configuration
+     * @param moves number of moves made to reach it
+     * @param priority moves made plus estimated moves left
+     * @param order when it was queued, so ties are broken first come first
+     *              served
+     */
+    private record Entry(HeuristicConfiguration config, int moves, int priority, long order) {}
+
+    /** Orders the queue by priority, then by fewest moves left, then by arrival */
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingInt(Entry::priority)
+            .thenComparing(Comparator.comparingInt(Entry::moves).reversed())
+            .thenComparingLong(Entry::order);
+
+    /** Stores the predecessors of each configuration */
+    private final HashMap<Configuration, Configuration> predecessors = new HashMap<>();
+    /** Stores the fewest moves found so far to reach each configuration */
+    private final HashMap<Configuration, Integer> moves = new HashMap<>();
+    /** Stores the configurations waiting to be expanded */
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(BEST_FIRST);
+    /** The start configuration */
+    private final HeuristicConfiguration start;
+    /** Total number of configurations it took to get to a solution */
+    private int totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private int uniqueConfigs = 0;
+
+    /**
+     * Initialize a new solver
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public AStarSolver(HeuristicConfiguration start){
+        this.start = start;
+    }
+
+    /**
+     * Tries to find a solution, if one exists, for a given configuration
+     *
+     * @return A solution, or null if no solution
+     */
+    public Collection<Configuration> solve(){
+        long order = 0;
+        predecessors.put(start, null);
+        moves.put(start, 0);
+        queue.add(new Entry(start, 0, start.estimate(), order++));
+        uniqueConfigs = 1;
+        totalConfigs = 1;
+        while(!queue.isEmpty()){
+            Entry current = queue.remove();
+            if (current.moves() > moves.get(current.config())) {
+                // a shorter way here was found after this entry was queued
+                continue;
+            }
+            if (current.config().isSolution()) {
+                return constructPath(current.config());
+            }
+            Collection<Configuration> successors = current.config().getNeighbors();
+            totalConfigs += successors.size();
+            int nbrMoves = current.moves() + 1;
+            for (Configuration nbr : successors) {
+                Integer known = moves.get(nbr);
+                if (known == null || nbrMoves < known) {
+                    if (known == null) {
+                        uniqueConfigs += 1;
+                    }
+                    HeuristicConfiguration next = (HeuristicConfiguration) nbr;
+                    predecessors.put(next, current.config());
+                    moves.put(next, nbrMoves);
+                    queue.add(new Entry(next, nbrMoves, nbrMoves + next.estimate(), order++));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Constructs a path from the predecessor map and returns the sequence
+     * from start to finish configurations
+     *
+     * @param end finishing configuration
+     * @return a list containing the sequence of configurations comprising
+     * the path
+     */
+    private Collection<Configuration> constructPath(Configuration end){
+        LinkedList<Configuration> path = new LinkedList<>();
+        for (Configuration step = end; step != null; step = predecessors.get(step)) {
+            path.addFirst(step);
+        }
+        return new ArrayList<>(path);
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public int getTotalConfigs() { return totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public int getUniqueConfigs() { return uniqueConfigs; }
+}
@@ -0,0 +1,166 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A breadth first search that runs forward from the start configuration
+ * and backward from every goal configuration at the same time, one layer
+ * at a time, always growing the smaller of the two frontiers. The search
+ * stops at the first layer where the two sides meet.
+ *
+ * @author Tiffany Lee
+ */
+public class BidirectionalSolver {
+    /** Stores the predecessor of each configuration reached from the start */
+    private final HashMap<Configuration, Configuration> predecessors = new HashMap<>();
+    /** Stores the successor of each configuration reached from a goal */
+    private final HashMap<Configuration, Configuration> successors = new HashMap<>();
+    /** Distance of each configuration reached from the start */
+    private final HashMap<Configuration, Integer> startDistance = new HashMap<>();
+    /** Distance of each configuration reached from a goal */
+    private final HashMap<Configuration, Integer> goalDistance = new HashMap<>();
+    /** The start configuration */
+    private final ReversibleConfiguration start;
+    /** Total number of configurations it took to get to a solution */
+    private int totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private int uniqueConfigs = 0;
+
+    /**
+     * Initialize a new solver
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public BidirectionalSolver(ReversibleConfiguration start){
+        this.start = start;
+    }
+
+    /**
+     * Tries to find a solution, if one exists, for a given configuration
+     *
+     * @return A solution, or null if no solution
+     */
+    public Collection<Configuration> solve(){
+        List<Configuration> forward = new ArrayList<>();
+        List<Configuration> backward = new ArrayList<>();
+        visit(start, null, 0, predecessors, startDistance, forward);
+        for (Configuration goal : start.getGoals()) {
+            if (!successors.containsKey(goal)) {
+                visit(goal, null, 0, successors, goalDistance, backward);
+            }
+        }
+        totalConfigs = uniqueConfigs;
+        if (start.isSolution()) {
+            return List.of(start);
+        }
+        while(!forward.isEmpty() && !backward.isEmpty()){
+            Configuration meet;
+            if (forward.size() <= backward.size()) {
+                forward = expand(forward, true);
+                meet = closest(forward, goalDistance);
+            } else {
+                backward = expand(backward, false);
+                meet = closest(backward, startDistance);
+            }
+            if (meet != null) {
+                return constructPath(meet);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Expands one whole layer of either side of the search
+     *
+     * @param layer the configurations at the current depth of that side
+     * @param fromStart true to expand forward, false to expand backward
+     * @return the configurations at the next depth of that side
+     */
+    private List<Configuration> expand(List<Configuration> layer, boolean fromStart){
+        HashMap<Configuration, Configuration> links = fromStart ? predecessors : successors;
+        HashMap<Configuration, Integer> distance = fromStart ? startDistance : goalDistance;
+        List<Configuration> next = new ArrayList<>();
+        for (Configuration current : layer) {
+            Collection<Configuration> nbrs = fromStart
+                    ? current.getNeighbors()
+                    : ((ReversibleConfiguration) current).getPredecessors();
+            totalConfigs += nbrs.size();
+            int depth = distance.get(current) + 1;
+            for (Configuration nbr : nbrs) {
+                if (!links.containsKey(nbr)) {
+                    visit(nbr, current, depth, links, distance, next);
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Records a newly reached configuration on one side of the search
+     *
+     * @param config the configuration reached
+     * @param from the configuration it was reached from, null at an end
+     * @param depth its distance from that side's end
+     * @param links the predecessor or successor map of that side
+     * @param distance the distance map of that side
+     * @param layer the layer it is queued in
+     */
+    private void visit(Configuration config, Configuration from, int depth,
+                       HashMap<Configuration, Configuration> links,
+                       HashMap<Configuration, Integer> distance,
+                       List<Configuration> layer){
+        uniqueConfigs += 1;
+        links.put(config, from);
+        distance.put(config, depth);
+        layer.add(config);
+    }
+
+    /**
+     * Finds the configuration of a new layer that was also reached by the
+     * other side and gives the shortest overall path
+     *
+     * @param layer the layer just built
+     * @param other the distance map of the other side
+     * @return the meeting configuration, or null if the sides have not met
+     */
+    private Configuration closest(List<Configuration> layer, HashMap<Configuration, Integer> other){
+        Configuration meet = null;
+        for (Configuration config : layer) {
+            Integer depth = other.get(config);
+            if (depth != null && (meet == null || depth < other.get(meet))) {
+                meet = config;
+            }
+        }
+        return meet;
+    }
+
+    /**
+     * Constructs the path through the configuration where both sides met
+     *
+     * @param meet configuration reached from both the start and a goal
+     * @return a list containing the sequence of configurations comprising
+     * the path
+     */
+    private Collection<Configuration> constructPath(Configuration meet){
+        LinkedList<Configuration> path = new LinkedList<>();
+        for (Configuration back = meet; back != null; back = predecessors.get(back)) {
+            path.addFirst(back);
+        }
+        for (Configuration ahead = successors.get(meet); ahead != null; ahead = successors.get(ahead)) {
+            path.addLast(ahead);
+        }
+        return new ArrayList<>(path);
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public int getTotalConfigs() { return totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public int getUniqueConfigs() { return uniqueConfigs; }
+}
@@ -0,0 +1,25 @@
+package puzzles.common.solver;
+
+/**
+ * A flag one thread can raise to ask a solve running on another thread to
+ * stop. The solve notices it the next time it takes a configuration off
+ * its queue.
+ *
+ * @author Tiffany Lee
+ */
+public class CancellationToken {
+    /** Has the solve been asked to stop? */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Asks the solve holding this token to stop
+     */
+    public void cancel() { cancelled = true; }
+
+    /**
+     * Has the solve holding this token been asked to stop?
+     *
+     * @return true if cancelled, false otherwise
+     */
+    public boolean isCancelled() { return cancelled; }
+}
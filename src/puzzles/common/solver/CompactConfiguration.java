@@ -0,0 +1,73 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can be packed into a few bytes and rebuilt from
+ * them. {@link CompactSolver} keeps only these encodings in its visited
+ * map instead of whole configurations.
+ *
+ * @author Tiffany Lee
+ */
+public interface CompactConfiguration extends Configuration {
+    /**
+     * Packs the parts of this configuration that change from move to move.
+     * Two configurations of the same puzzle are equal iff their encodings
+     * are equal.
+     *
+     * @return the encoding
+     */
+    byte[] encode();
+
+    /**
+     * Rebuilds a configuration of the same puzzle from an encoding made by
+     * {@link #encode()}. Anything fixed for the puzzle, like the size of
+     * the board, is taken from this configuration.
+     *
+     * @param state the encoding
+     * @return the configuration it describes
+     */
+    CompactConfiguration decode(byte[] state);
+
+    /**
+     * Describes what the encoding leaves out because it is fixed for the
+     * puzzle, like the size of the board. Configurations with equal shapes
+     * can decode each other's encodings, so a shape and an encoding
+     * together name a configuration even outside this run.
+     *
+     * @return the shape
+     */
+    default String shape(){
+        return getClass().getName();
+    }
+
+    /**
+     * Writes the low bits of a value into a packed array
+     *
+     * @param state the packed array
+     * @param position index of the first bit to write
+     * @param width number of bits to write
+     * @param value the value to write
+     */
+    static void writeBits(byte[] state, int position, int width, int value){
+        for (int bit = 0; bit < width; bit++, position++) {
+            if ((value >>> bit & 1) != 0) {
+                state[position >>> 3] |= (byte) (1 << (position & 7));
+            }
+        }
+    }
+
+    /**
+     * Reads a value back out of a packed array
+     *
+     * @param state the packed array
+     * @param position index of the first bit to read
+     * @param width number of bits to read
+     * @return the value that was written there
+     */
+    static int readBits(byte[] state, int position, int width){
+        int value = 0;
+        for (int bit = 0; bit < width; bit++, position++) {
+            value |= (state[position >>> 3] >>> (position & 7) & 1) << bit;
+        }
+        return value;
+    }
+}
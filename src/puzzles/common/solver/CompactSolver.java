@@ -0,0 +1,94 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * The same breadth first search as {@link Solver}, except the visited map
+ * and the queue hold the encodings of the configurations instead of the
+ * configurations themselves. A configuration is rebuilt only when it is
+ * taken off the queue or when the path is constructed, so the heap used
+ * per explored configuration is the size of its encoding.
+ *
+ * @author Tiffany Lee
+ */
+public class CompactSolver {
+    /** Stores the predecessors of each encoded configuration */
+    private final HashMap<StateKey, StateKey> predecessors = new HashMap<>();
+    /** Stores the order of the visitation of each encoded configuration */
+    private final Queue<StateKey> queue = new ArrayDeque<>();
+    /** The start configuration */
+    private final CompactConfiguration start;
+    /** Total number of configurations it took to get to a solution */
+    private int totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private int uniqueConfigs = 0;
+
+    /**
+     * Initialize a new solver
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public CompactSolver(CompactConfiguration start){
+        this.start = start;
+    }
+
+    /**
+     * Tries to find a solution, if one exists, for a given configuration
+     *
+     * @return A solution, or null if no solution
+     */
+    public Collection<Configuration> solve(){
+        StateKey startKey = new StateKey(start.encode());
+        queue.add(startKey);
+        predecessors.put(startKey, null);
+        uniqueConfigs = 1;
+        totalConfigs = 1;
+        while(!queue.isEmpty()){
+            StateKey currentKey = queue.remove();
+            Configuration current = start.decode(currentKey.bytes());
+            if (current.isSolution()) {
+                return constructPath(currentKey);
+            } else {
+                Collection<Configuration> successors = current.getNeighbors();
+                totalConfigs += successors.size();
+                for (Configuration nbr : successors) {
+                    StateKey nbrKey = new StateKey(((CompactConfiguration) nbr).encode());
+                    if (!predecessors.containsKey(nbrKey)) {
+                        uniqueConfigs += 1;
+                        predecessors.put(nbrKey, currentKey);
+                        queue.add(nbrKey);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Constructs a path from the predecessor map, decoding each step, and
+     * returns the sequence from start to finish configurations
+     *
+     * @param end encoding of the finishing configuration
+     * @return a list containing the sequence of configurations comprising
+     * the path
+     */
+    private Collection<Configuration> constructPath(StateKey end){
+        LinkedList<Configuration> path = new LinkedList<>();
+        for (StateKey step = end; step != null; step = predecessors.get(step)) {
+            path.addFirst(start.decode(step.bytes()));
+        }
+        return new ArrayList<>(path);
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public int getTotalConfigs() { return totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public int getUniqueConfigs() { return uniqueConfigs; }
+}
@@ -1,6 +1,7 @@
 package puzzles.common.solver;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface Configuration {
     boolean isSolution();
@@ -8,4 +9,18 @@ public interface Configuration {
     boolean equals(Object other);
     int hashCode();
     String toString();
+
+    /**
+     * Hands each neighbor to a sink as soon as it is made, in the same
+     * order {@link #getNeighbors()} lists them, without building a
+     * collection. Puzzles that generate neighbors directly should
+     * override this; the default just walks {@link #getNeighbors()}.
+     *
+     * @param sink receives each neighbor
+     */
+    default void forEachNeighbor(Consumer<Configuration> sink) {
+        for (Configuration neighbor : getNeighbors()) {
+            sink.accept(neighbor);
+        }
+    }
 }
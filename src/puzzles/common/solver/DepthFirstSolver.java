@@ -0,0 +1,186 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A depth first search for puzzles where every move brings the end one
+ * step closer. Since every solution is the same length there is nothing
+ * to gain from searching layer by layer, so this follows one line of
+ * moves at a time and only keeps the current path and the configurations
+ * already proven to be dead ends. A configuration reached again by a
+ * different order of moves is skipped if it is in that dead set, and no
+ * move can loop back, so nothing else has to be remembered. Known dead
+ * ends, see {@link PrunableConfiguration}, are skipped without a search.
+ *
+ * The moves from each configuration are tried in the order they are
+ * generated, unless a move ordering is given to try the most promising
+ * ones first.
+ *
+ * @author Tiffany Lee
+ */
+public class DepthFirstSolver {
+    /** The configurations of the path being searched, start first */
+    private final LinkedList<Configuration> path = new LinkedList<>();
+    /** Configurations that have been searched and lead to no solution */
+    private final HashSet<Configuration> dead = new HashSet<>();
+    /** The start configuration */
+    private final MonotoneConfiguration start;
+    /** Order the moves from each configuration are tried in, or null for as generated */
+    private final Comparator<? super Configuration> moveOrder;
+    /** The limits the current solve must stay within */
+    private SolveBudget budget = SolveBudget.UNLIMITED;
+    /** Time the current solve must be done by */
+    private long deadline = Long.MAX_VALUE;
+    /** Why the current solve had to stop early, or null if it did not */
+    private SolveResult.Outcome stopped = null;
+    /** Where solutions are looked up before searching, or null for nowhere */
+    private SolutionStore store = null;
+    /** Total number of configurations it took to get to a solution */
+    private int totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private int uniqueConfigs = 0;
+
+    /**
+     * Initialize a new solver that tries moves in the order they are
+     * generated
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public DepthFirstSolver(MonotoneConfiguration start){
+        this(start, null);
+    }
+
+    /**
+     * Initialize a new solver that tries the moves from each configuration
+     * in a given order
+     *
+     * @param start The start configuration of a puzzle
+     * @param moveOrder order to try the neighbors of a configuration in,
+     *                  or null for the order they are generated in
+     */
+    public DepthFirstSolver(MonotoneConfiguration start, Comparator<? super Configuration> moveOrder){
+        this.start = start;
+        this.moveOrder = moveOrder;
+    }
+
+    /**
+     * Tries to find a solution, if one exists, for a given configuration
+     *
+     * @return A solution, or null if no solution
+     */
+    public Collection<Configuration> solve(){
+        return solve(SolveBudget.UNLIMITED).path();
+    }
+
+    /**
+     * Has the solver look each start up in a store before searching, and
+     * remember in it how each search ended
+     *
+     * @param store the store, or null to always search
+     */
+    public void useStore(SolutionStore store){
+        this.store = store;
+    }
+
+    /**
+     * Tries to find a solution within a budget. If the budget runs out or
+     * the solve is cancelled, it stops and reports how far it got instead.
+     * A start already in the store is not searched at all.
+     *
+     * @param budget the limits the solve must stay within
+     * @return how the solve ended, with the solution if one was found
+     */
+    public SolveResult solve(SolveBudget budget){
+        SolveResult known = store == null ? null : store.lookup(start);
+        if (known != null) {
+            return known;
+        }
+        SolveResult result = searchWithin(budget);
+        if (store != null) {
+            store.record(start, result);
+        }
+        return result;
+    }
+
+    /**
+     * Searches for a solution within a budget
+     *
+     * @param budget the limits the search must stay within
+     * @return how the search ended, with the solution if one was found
+     */
+    private SolveResult searchWithin(SolveBudget budget){
+        long began = System.nanoTime();
+        this.budget = budget;
+        this.deadline = budget.deadline(began);
+        this.stopped = null;
+        totalConfigs += 1;
+        uniqueConfigs += 1;
+        path.add(start);
+        SolveResult.Outcome outcome;
+        List<Configuration> solution = null;
+        if (search(start)) {
+            outcome = SolveResult.Outcome.SOLVED;
+            solution = new ArrayList<>(path);
+        } else if (stopped != null) {
+            outcome = stopped;
+        } else {
+            outcome = SolveResult.Outcome.UNSOLVABLE;
+        }
+        path.clear();
+        return new SolveResult(outcome, solution, totalConfigs, uniqueConfigs, System.nanoTime() - began);
+    }
+
+    /**
+     * Searches below the last configuration of the path. If it finds a
+     * solution the path is left ending in it, otherwise the path is left
+     * as it was.
+     *
+     * @param current the last configuration of the path
+     * @return true if a solution was found, false otherwise
+     */
+    private boolean search(MonotoneConfiguration current){
+        if (current.isSolution()) {
+            return true;
+        } else if (current.movesRemaining() == 0) {
+            return false;
+        }
+        stopped = budget.exceeded(uniqueConfigs, uniqueConfigs, deadline);
+        if (stopped != null) {
+            return false;
+        }
+        List<Configuration> successors = new ArrayList<>(current.getNeighbors());
+        totalConfigs += successors.size();
+        if (moveOrder != null) {
+            successors.sort(moveOrder);
+        }
+        for (Configuration nbr : successors) {
+            // a configuration still on the path is always a different
+            // number of moves away, so only the dead ones can repeat
+            if (!dead.contains(nbr) && !PrunableConfiguration.prunes(nbr)) {
+                uniqueConfigs += 1;
+                path.addLast(nbr);
+                if (search((MonotoneConfiguration) nbr)) {
+                    return true;
+                }
+                path.removeLast();
+                if (stopped != null) {
+                    return false;
+                }
+                dead.add(nbr);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public int getTotalConfigs() { return totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public int getUniqueConfigs() { return uniqueConfigs; }
+}
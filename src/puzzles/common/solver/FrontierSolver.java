@@ -0,0 +1,171 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A breadth first search for puzzles where every move can be undone by
+ * another move. Then every neighbor of a configuration in one layer is in
+ * the layer before it, the same layer, or the layer after it, so only
+ * those three layers are kept to tell new configurations from old ones,
+ * and nothing is kept for the layers before them. Memory grows with the
+ * width of the frontier instead of with every configuration reached.
+ * A puzzle whose start says some moves cannot be undone would be counted
+ * again each time the search came back round to an old configuration, so
+ * for it every layer is kept, like a plain breadth first search.
+ *
+ * Without predecessors the path has to be found again. Knowing the
+ * solution is some number of moves away, a search forward from the start
+ * for half of them and backward from the solution for the other half meet
+ * at a configuration in the middle of a shortest path, and the two halves
+ * are found the same way until each is a single move.
+ *
+ * @author Tiffany Lee
+ */
+public class FrontierSolver {
+    /** The start configuration */
+    private final ReversibleConfiguration start;
+    /** Can only three layers be kept, since every move can be undone? */
+    private final boolean forgets;
+    /** Total number of configurations it took to get to a solution */
+    private int totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private int uniqueConfigs = 0;
+
+    /**
+     * Initialize a new solver
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public FrontierSolver(ReversibleConfiguration start){
+        this.start = start;
+        this.forgets = start.isUndoable();
+    }
+
+    /**
+     * Tries to find a solution, if one exists, for a given configuration
+     *
+     * @return A solution, or null if no solution
+     */
+    public Collection<Configuration> solve(){
+        LinkedHashSet<Configuration> previous = new LinkedHashSet<>();
+        LinkedHashSet<Configuration> current = new LinkedHashSet<>(List.of(start));
+        totalConfigs = 1;
+        uniqueConfigs = 1;
+        for (int depth = 0; !current.isEmpty(); depth++) {
+            LinkedHashSet<Configuration> next = new LinkedHashSet<>();
+            for (Configuration config : current) {
+                if (config.isSolution()) {
+                    List<Configuration> path = new ArrayList<>();
+                    path.add(start);
+                    connect(start, config, depth, path);
+                    return path;
+                }
+                for (Configuration nbr : config.getNeighbors()) {
+                    totalConfigs += 1;
+                    if (!previous.contains(nbr) && !current.contains(nbr) && next.add(nbr)) {
+                        uniqueConfigs += 1;
+                    }
+                }
+            }
+            previous = forget(previous, current, forgets);
+            current = next;
+        }
+        return null;
+    }
+
+    /**
+     * Adds the configurations of a shortest path from one configuration to
+     * another to a path, leaving out the first
+     *
+     * @param from the first configuration, already on the path
+     * @param to the last configuration
+     * @param moves number of moves between them
+     * @param path where the configurations are added
+     */
+    private void connect(Configuration from, Configuration to, int moves, List<Configuration> path){
+        if (moves == 0) {
+            return;
+        } else if (moves == 1) {
+            path.add(to);
+            return;
+        }
+        int half = moves / 2;
+        Set<Configuration> reverse = layer(to, moves - half, true, forgets);
+        Configuration middle = null;
+        for (Configuration config : layer(from, half, false, forgets)) {
+            if (reverse.contains(config)) {
+                middle = config;
+                break;
+            }
+        }
+        if (middle == null) {
+            throw new IllegalStateException("No configuration halfway from " + from + " to " + to
+                    + "; are all the moves reversible?");
+        }
+        connect(from, middle, half, path);
+        connect(middle, to, moves - half, path);
+    }
+
+    /**
+     * Finds every configuration a number of moves away, keeping only three
+     * layers at a time
+     *
+     * @param from where to search from
+     * @param moves number of moves
+     * @param backward search by predecessors instead of neighbors?
+     * @param forgets keep only three layers instead of all of them?
+     * @return the configurations exactly that many moves away, in the
+     * order they were reached
+     */
+    private static LinkedHashSet<Configuration> layer(Configuration from, int moves, boolean backward,
+                                                      boolean forgets){
+        LinkedHashSet<Configuration> previous = new LinkedHashSet<>();
+        LinkedHashSet<Configuration> current = new LinkedHashSet<>(List.of(from));
+        for (int depth = 0; depth < moves && !current.isEmpty(); depth++) {
+            LinkedHashSet<Configuration> next = new LinkedHashSet<>();
+            for (Configuration config : current) {
+                Collection<Configuration> moved = backward
+                        ? ((ReversibleConfiguration) config).getPredecessors()
+                        : config.getNeighbors();
+                for (Configuration nbr : moved) {
+                    if (!previous.contains(nbr) && !current.contains(nbr)) {
+                        next.add(nbr);
+                    }
+                }
+            }
+            previous = forget(previous, current, forgets);
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Moves on from a layer, dropping the one before it unless every
+     * layer is being kept
+     *
+     * @param previous the configurations already searched before the layer
+     * @param current the layer just searched
+     * @param forgets keep only three layers instead of all of them?
+     * @return the configurations searched before the next layer
+     */
+    private static LinkedHashSet<Configuration> forget(LinkedHashSet<Configuration> previous,
+                                                       LinkedHashSet<Configuration> current, boolean forgets){
+        if (forgets) {
+            return current;
+        }
+        previous.addAll(current);
+        return previous;
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public int getTotalConfigs() { return totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public int getUniqueConfigs() { return uniqueConfigs; }
+}
@@ -0,0 +1,18 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can estimate how far it is from a solution. The
+ * estimate must never be more than the real number of moves left, so
+ * {@link AStarSolver} and {@link IDAStarSolver} still find the shortest
+ * solution.
+ *
+ * @author Tiffany Lee
+ */
+public interface HeuristicConfiguration extends Configuration {
+    /**
+     * Estimates the number of moves left to reach a solution
+     *
+     * @return a lower bound on the number of moves left, 0 for a solution
+     */
+    int estimate();
+}
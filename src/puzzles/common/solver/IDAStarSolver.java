@@ -0,0 +1,111 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * An iterative deepening version of {@link AStarSolver}. Each pass is a
+ * depth first search that gives up on any configuration whose moves made
+ * plus estimated moves left go over a bound, and the next pass raises the
+ * bound to the smallest value that went over. Only the current path is
+ * kept in memory, so it can solve puzzles whose visited map would not fit.
+ *
+ * Since nothing is remembered between passes, the unique configurations
+ * reported are the configurations on distinct paths of the last pass.
+ *
+ * @author Tiffany Lee
+ */
+public class IDAStarSolver {
+    /** Returned by a pass that found a solution */
+    private static final int FOUND = -1;
+
+    /** The configurations of the path being searched, start first */
+    private final LinkedList<Configuration> path = new LinkedList<>();
+    /** The same configurations as the path, to skip moves that loop back */
+    private final HashSet<Configuration> onPath = new HashSet<>();
+    /** The start configuration */
+    private final HeuristicConfiguration start;
+    /** Total number of configurations it took to get to a solution */
+    private int totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private int uniqueConfigs = 0;
+
+    /**
+     * Initialize a new solver
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public IDAStarSolver(HeuristicConfiguration start){
+        this.start = start;
+    }
+
+    /**
+     * Tries to find a solution, if one exists, for a given configuration
+     *
+     * @return A solution, or null if no solution
+     */
+    public Collection<Configuration> solve(){
+        totalConfigs = 1;
+        path.add(start);
+        onPath.add(start);
+        int bound = start.estimate();
+        while(true){
+            uniqueConfigs = 1;
+            int next = search(start, 0, bound);
+            if (next == FOUND) {
+                return new ArrayList<>(path);
+            } else if (next == Integer.MAX_VALUE) {
+                return null;
+            }
+            bound = next;
+        }
+    }
+
+    /**
+     * Searches below a configuration without going over the bound
+     *
+     * @param current the last configuration of the path
+     * @param moves number of moves made to reach it
+     * @param bound largest moves made plus estimated moves left to search
+     * @return {@link #FOUND} if the path now ends in a solution, otherwise
+     * the smallest value over the bound that was seen, or
+     * {@link Integer#MAX_VALUE} if nothing went over it
+     */
+    private int search(HeuristicConfiguration current, int moves, int bound){
+        int priority = moves + current.estimate();
+        if (priority > bound) {
+            return priority;
+        }
+        if (current.isSolution()) {
+            return FOUND;
+        }
+        int smallest = Integer.MAX_VALUE;
+        Collection<Configuration> successors = current.getNeighbors();
+        totalConfigs += successors.size();
+        for (Configuration nbr : successors) {
+            if (onPath.add(nbr)) {
+                uniqueConfigs += 1;
+                path.addLast(nbr);
+                int next = search((HeuristicConfiguration) nbr, moves + 1, bound);
+                if (next == FOUND) {
+                    return FOUND;
+                }
+                path.removeLast();
+                onPath.remove(nbr);
+                smallest = Math.min(smallest, next);
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public int getTotalConfigs() { return totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public int getUniqueConfigs() { return uniqueConfigs; }
+}
@@ -0,0 +1,52 @@
+package puzzles.common.solver;
+
+/**
+ * Statistics about one layer of a breadth first search, handed to the
+ * observers of a {@link Solver} when the layer is done.
+ *
+ * @param depth number of moves from the start to the configurations of the layer
+ * @param frontier number of configurations of the layer that were expanded
+ * @param generated number of neighbors the layer generated
+ * @param added number of those neighbors that had not been seen before
+ * @param totalConfigs total number of configurations so far
+ * @param uniqueConfigs number of unique configurations so far
+ * @param layerNanos time spent on the layer, in nanoseconds
+ * @param elapsedNanos time spent since the solve started, in nanoseconds
+ * @param heapUsed estimate of the heap in use when the layer was done, in bytes
+ *
+ * @author Tiffany Lee
+ */
+public record LayerStats(int depth, int frontier, long generated, long added,
+                         long totalConfigs, long uniqueConfigs,
+                         long layerNanos, long elapsedNanos, long heapUsed) {
+    /** Nanoseconds in a second */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Takes a snapshot of the heap in use right now
+     *
+     * @return bytes of heap in use
+     */
+    public static long currentHeapUsed() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Gets the share of generated neighbors that had already been seen
+     *
+     * @return a ratio from 0 to 1, 0 if nothing was generated
+     */
+    public double duplicateRatio() {
+        return generated == 0 ? 0 : (double) (generated - added) / generated;
+    }
+
+    /**
+     * Gets how fast the layer was expanded
+     *
+     * @return configurations expanded per second
+     */
+    public double nodesPerSecond() {
+        return layerNanos == 0 ? 0 : frontier * NANOS_PER_SECOND / layerNanos;
+    }
+}
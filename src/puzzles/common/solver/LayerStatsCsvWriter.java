@@ -0,0 +1,52 @@
+package puzzles.common.solver;
+
+import puzzles.common.Observer;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Observes a {@link Solver} and writes one comma separated line per layer,
+ * after a header line, so a solve can be charted.
+ *
+ * @author Tiffany Lee
+ */
+public class LayerStatsCsvWriter implements Observer<Solver, LayerStats> {
+    /** Names of the columns, in the order they are written */
+    public static final String HEADER = "depth,frontier,generated,added,totalConfigs,uniqueConfigs,"
+            + "duplicateRatio,layerNanos,elapsedNanos,nodesPerSecond,heapUsed";
+
+    /** Where the lines are written */
+    private final PrintWriter out;
+    /** Has the header been written yet? */
+    private boolean wroteHeader = false;
+
+    /**
+     * Creates a writer for the given output, which is not closed by it
+     *
+     * @param out where the lines are written
+     */
+    public LayerStatsCsvWriter(Writer out) {
+        this.out = new PrintWriter(out);
+    }
+
+    /**
+     * Writes the line for a finished layer
+     *
+     * @param solver the solver doing the search
+     * @param stats the statistics of the layer
+     */
+    @Override
+    public void update(Solver solver, LayerStats stats) {
+        if (!wroteHeader) {
+            out.println(HEADER);
+            wroteHeader = true;
+        }
+        out.println(String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%.6f,%d,%d,%.1f,%d",
+                stats.depth(), stats.frontier(), stats.generated(), stats.added(),
+                stats.totalConfigs(), stats.uniqueConfigs(), stats.duplicateRatio(),
+                stats.layerNanos(), stats.elapsedNanos(), stats.nodesPerSecond(), stats.heapUsed()));
+        out.flush();
+    }
+}
@@ -0,0 +1,45 @@
+package puzzles.common.solver;
+
+import puzzles.common.Observer;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Observes a {@link Solver} and writes one JSON object per layer, one per
+ * line (JSON lines), so a solve can be charted.
+ *
+ * @author Tiffany Lee
+ */
+public class LayerStatsJsonWriter implements Observer<Solver, LayerStats> {
+    /** Where the lines are written */
+    private final PrintWriter out;
+
+    /**
+     * Creates a writer for the given output, which is not closed by it
+     *
+     * @param out where the lines are written
+     */
+    public LayerStatsJsonWriter(Writer out) {
+        this.out = new PrintWriter(out);
+    }
+
+    /**
+     * Writes the line for a finished layer
+     *
+     * @param solver the solver doing the search
+     * @param stats the statistics of the layer
+     */
+    @Override
+    public void update(Solver solver, LayerStats stats) {
+        out.println(String.format(Locale.ROOT,
+                "{\"depth\":%d,\"frontier\":%d,\"generated\":%d,\"added\":%d,"
+                        + "\"totalConfigs\":%d,\"uniqueConfigs\":%d,\"duplicateRatio\":%.6f,"
+                        + "\"layerNanos\":%d,\"elapsedNanos\":%d,\"nodesPerSecond\":%.1f,\"heapUsed\":%d}",
+                stats.depth(), stats.frontier(), stats.generated(), stats.added(),
+                stats.totalConfigs(), stats.uniqueConfigs(), stats.duplicateRatio(),
+                stats.layerNanos(), stats.elapsedNanos(), stats.nodesPerSecond(), stats.heapUsed()));
+        out.flush();
+    }
+}
@@ -0,0 +1,376 @@
+package puzzles.common.solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A visited table for encoded configurations that lives in memory mapped
+ * scratch files instead of on the Java heap.
+ * <ul>
+ *     <li>
+ *         Every configuration added is appended as a fixed width record
+ *         holding its encoding and the index of its predecessor. Records
+ *         never move, so an index is a stable name for a configuration.
+ *         When the records run out of room another chunk of the file is
+ *         mapped; nothing already written is touched.
+ *     </li>
+ *     <li>
+ *         An open addressing hash index of record numbers finds a record
+ *         by its encoding. It is mapped in chunks too and addressed by
+ *         long offsets, so it is not held to the 2 GiB of one mapping.
+ *         When it gets half full its file is doubled by mapping more
+ *         chunks, and every record number is put back in from the mapped
+ *         records, so no other mapping is made and left behind and
+ *         nothing is allocated per record.
+ *     </li>
+ * </ul>
+ * The heap used only grows by a reference per mapped chunk. Record
+ * numbers are ints, so a table holds fewer than 2^31 records, and its
+ * index grows to at most 2^32 slots, 16 GiB.
+ *
+ * @author Tiffany Lee
+ */
+public class MappedStateTable implements AutoCloseable {
+    /** Index of the predecessor of a configuration that has none */
+    public static final int NO_PARENT = -1;
+    /** Number of records in each mapped chunk of the records file */
+    private static final int RECORDS_PER_CHUNK = 1 << 16;
+    /** Number of slots in each mapped chunk of the hash index, and the number it starts with */
+    private static final int SLOTS_PER_CHUNK = 1 << 16;
+    /** Bytes in a slot of the hash index */
+    private static final int SLOT_BYTES = Integer.BYTES;
+    /** Bytes at the start of a record holding the length of the encoding */
+    private static final int LENGTH_BYTES = Short.BYTES;
+    /** Starting value of the FNV-1a hash of an encoding */
+    private static final long HASH_SEED = 0xCBF29CE484222325L;
+    /** Multiplier of the FNV-1a hash of an encoding */
+    private static final long HASH_PRIME = 0x100000001B3L;
+
+    /** File holding the records */
+    private final Path recordsFile;
+    /** Channel of the records file */
+    private final FileChannel records;
+    /** Mapped chunks of the records file */
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    /** Longest encoding a record can hold */
+    private final int keyBytes;
+    /** Bytes in a record: length, encoding, then predecessor */
+    private final int recordBytes;
+    /** File holding the hash index */
+    private final Path indexFile;
+    /** Channel of the hash index file */
+    private final FileChannel index;
+    /** Mapped chunks of the hash index, each slot is a record number plus one */
+    private final List<MappedByteBuffer> indexChunks = new ArrayList<>();
+    /** Number of slots in the hash index, a power of two */
+    private long slots = 0;
+    /** Number of records added */
+    private int size = 0;
+
+    /**
+     * Creates an empty table in the system's temporary directory
+     *
+     * @param keyBytes longest encoding that will be added
+     * @throws UncheckedIOException if the scratch files cannot be made
+     */
+    public MappedStateTable(int keyBytes){
+        this(keyBytes, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Creates an empty table
+     *
+     * @param keyBytes longest encoding that will be added
+     * @param directory directory to make the scratch files in
+     * @throws UncheckedIOException if the scratch files cannot be made
+     */
+    public MappedStateTable(int keyBytes, Path directory){
+        this.keyBytes = keyBytes;
+        this.recordBytes = LENGTH_BYTES + keyBytes + Integer.BYTES;
+        try {
+            this.recordsFile = Files.createTempFile(directory, "states", ".records");
+            this.records = FileChannel.open(recordsFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.indexFile = Files.createTempFile(directory, "states", ".index");
+            this.index = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapSlots(SLOTS_PER_CHUNK);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds an encoding unless it is already in the table
+     *
+     * @param key the encoding of a configuration
+     * @param parent record number of its predecessor, or {@link #NO_PARENT}
+     * @return the record number it was added as, or -1 if it was already there
+     * @throws IllegalArgumentException if the encoding is longer than the
+     * table was made for
+     * @throws IllegalStateException if the table already holds as many
+     * records as it can number
+     */
+    public int add(byte[] key, int parent){
+        if (key.length > keyBytes) {
+            throw new IllegalArgumentException("encoding of " + key.length
+                    + " bytes is longer than the " + keyBytes + " the table holds");
+        }
+        long slot = find(key);
+        if (slot(slot) != 0) {
+            return -1;
+        }
+        if (size == Integer.MAX_VALUE - 1) {
+            throw new IllegalStateException("the table is full at " + size + " records");
+        }
+        int record = size++;
+        write(record, key, parent);
+        setSlot(slot, record + 1);
+        if (size > slots / 2) {
+            grow();
+        }
+        return record;
+    }
+
+    /**
+     * Is the encoding in the table?
+     *
+     * @param key the encoding of a configuration
+     * @return true if it was added before, false otherwise
+     */
+    public boolean contains(byte[] key){
+        return key.length <= keyBytes && slot(find(key)) != 0;
+    }
+
+    /**
+     * Gets the encoding stored in a record
+     *
+     * @param record the record number
+     * @return the encoding
+     */
+    public byte[] key(int record){
+        MappedByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        byte[] key = new byte[chunk.getShort(offset)];
+        chunk.get(offset + LENGTH_BYTES, key);
+        return key;
+    }
+
+    /**
+     * Gets the predecessor stored in a record
+     *
+     * @param record the record number
+     * @return record number of the predecessor, or {@link #NO_PARENT}
+     */
+    public int parent(int record){
+        return chunk(record).getInt(offset(record) + LENGTH_BYTES + keyBytes);
+    }
+
+    /**
+     * Gets the number of records in the table
+     *
+     * @return number of records
+     */
+    public int size(){ return size; }
+
+    /**
+     * Closes both scratch files and deletes them
+     */
+    @Override
+    public void close(){
+        try {
+            records.close();
+            index.close();
+            Files.deleteIfExists(recordsFile);
+            Files.deleteIfExists(indexFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a record, mapping another chunk of the records file if needed
+     *
+     * @param record the record number
+     * @param key the encoding
+     * @param parent record number of the predecessor
+     */
+    private void write(int record, byte[] key, int parent){
+        if (record / RECORDS_PER_CHUNK == chunks.size()) {
+            try {
+                long chunkBytes = (long) RECORDS_PER_CHUNK * recordBytes;
+                MappedByteBuffer chunk = records.map(FileChannel.MapMode.READ_WRITE,
+                        chunks.size() * chunkBytes, chunkBytes);
+                chunk.order(ByteOrder.nativeOrder());
+                chunks.add(chunk);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        MappedByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        chunk.putShort(offset, (short) key.length);
+        chunk.put(offset + LENGTH_BYTES, key);
+        chunk.putInt(offset + LENGTH_BYTES + keyBytes, parent);
+    }
+
+    /**
+     * Doubles the hash index and puts every record number back in. The
+     * record numbers are read from the records rather than the old slots,
+     * so the chunks already mapped are cleared and reused in place.
+     */
+    private void grow(){
+        for (MappedByteBuffer chunk : indexChunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += Long.BYTES) {
+                chunk.putLong(offset, 0);
+            }
+        }
+        mapSlots(slots * 2);
+        long mask = slots - 1;
+        for (int record = 0; record < size; record++) {
+            // every record is unique, so it only needs an empty slot
+            long slot = (hash(record) & 0xFFFFFFFFL) & mask;
+            while (slot(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            setSlot(slot, record + 1);
+        }
+    }
+
+    /**
+     * Maps more chunks of the hash index file, which start out empty
+     *
+     * @param total number of slots the index has afterwards
+     */
+    private void mapSlots(long total){
+        try {
+            long chunkBytes = (long) SLOTS_PER_CHUNK * SLOT_BYTES;
+            while ((long) indexChunks.size() * SLOTS_PER_CHUNK < total) {
+                MappedByteBuffer chunk = index.map(FileChannel.MapMode.READ_WRITE,
+                        indexChunks.size() * chunkBytes, chunkBytes);
+                chunk.order(ByteOrder.nativeOrder());
+                indexChunks.add(chunk);
+            }
+            slots = total;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets what a slot of the hash index holds
+     *
+     * @param slot the slot number
+     * @return the record number plus one, or 0 if it is empty
+     */
+    private int slot(long slot){
+        return indexChunks.get((int) (slot / SLOTS_PER_CHUNK)).getInt((int) (slot % SLOTS_PER_CHUNK) * SLOT_BYTES);
+    }
+
+    /**
+     * Fills a slot of the hash index
+     *
+     * @param slot the slot number
+     * @param entry the record number plus one
+     */
+    private void setSlot(long slot, int entry){
+        indexChunks.get((int) (slot / SLOTS_PER_CHUNK)).putInt((int) (slot % SLOTS_PER_CHUNK) * SLOT_BYTES, entry);
+    }
+
+    /**
+     * Finds the slot holding an encoding, or the empty slot it belongs in
+     *
+     * @param key the encoding
+     * @return the slot number
+     */
+    private long find(byte[] key){
+        long mask = slots - 1;
+        long slot = (hash(key) & 0xFFFFFFFFL) & mask;
+        while(true){
+            int entry = slot(slot);
+            if (entry == 0 || matches(entry - 1, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Does a record hold the given encoding?
+     *
+     * @param record the record number
+     * @param key the encoding
+     * @return true if they are the same, false otherwise
+     */
+    private boolean matches(int record, byte[] key){
+        MappedByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        if (chunk.getShort(offset) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(offset + LENGTH_BYTES + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spreads an encoding over the bits of an int
+     *
+     * @param key the encoding
+     * @return the hash
+     */
+    private static int hash(byte[] key){
+        long hash = HASH_SEED;
+        for (byte b : key) {
+            hash = (hash ^ (b & 0xFF)) * HASH_PRIME;
+        }
+        return (int) (hash ^ hash >>> 32);
+    }
+
+    /**
+     * Spreads the encoding stored in a record the same way as
+     * {@link #hash(byte[])}, without copying it out of the mapping
+     *
+     * @param record the record number
+     * @return the hash
+     */
+    private int hash(int record){
+        MappedByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        int length = chunk.getShort(offset);
+        long hash = HASH_SEED;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ (chunk.get(offset + LENGTH_BYTES + i) & 0xFF)) * HASH_PRIME;
+        }
+        return (int) (hash ^ hash >>> 32);
+    }
+
+    /**
+     * Gets the mapped chunk a record is in
+     *
+     * @param record the record number
+     * @return the chunk
+     */
+    private MappedByteBuffer chunk(int record){
+        return chunks.get(record / RECORDS_PER_CHUNK);
+    }
+
+    /**
+     * Gets the byte offset of a record in its chunk
+     *
+     * @param record the record number
+     * @return the offset
+     */
+    private int offset(int record){
+        return (record % RECORDS_PER_CHUNK) * recordBytes;
+    }
+}
@@ -0,0 +1,20 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that always knows exactly how many moves are left,
+ * because every move takes it one step closer to the end whichever move
+ * is made, like a capture in chess or a jump in hoppers. Every solution
+ * then has the same length and no move can ever lead back to an earlier
+ * configuration, which is what {@link DepthFirstSolver} relies on.
+ *
+ * @author Tiffany Lee
+ */
+public interface MonotoneConfiguration extends Configuration {
+    /**
+     * Gets the number of moves left before no move can be made. Every
+     * neighbor must have exactly one less.
+     *
+     * @return moves left, never negative
+     */
+    int movesRemaining();
+}
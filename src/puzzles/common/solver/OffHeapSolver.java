@@ -0,0 +1,105 @@
+package puzzles.common.solver;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The same breadth first search as {@link Solver}, with the visited
+ * configurations kept off the Java heap in a {@link MappedStateTable}.
+ * Records are added to the table in the order they are queued, so the
+ * queue is just the number of the next record to expand.
+ *
+ * The encoding of the start configuration must be the longest one the
+ * puzzle can reach, which holds for Chess and Hoppers since pieces are
+ * only ever removed.
+ *
+ * @author Tiffany Lee
+ */
+public class OffHeapSolver {
+    /** The start configuration */
+    private final CompactConfiguration start;
+    /** Directory the scratch files are made in */
+    private final Path directory;
+    /** Total number of configurations it took to get to a solution */
+    private int totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private int uniqueConfigs = 0;
+
+    /**
+     * Initialize a new solver that keeps its table in the system's
+     * temporary directory
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public OffHeapSolver(CompactConfiguration start){
+        this(start, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Initialize a new solver
+     *
+     * @param start The start configuration of a puzzle
+     * @param directory directory to keep the table in
+     */
+    public OffHeapSolver(CompactConfiguration start, Path directory){
+        this.start = start;
+        this.directory = directory;
+    }
+
+    /**
+     * Tries to find a solution, if one exists, for a given configuration
+     *
+     * @return A solution, or null if no solution
+     */
+    public Collection<Configuration> solve(){
+        byte[] startKey = start.encode();
+        try (MappedStateTable visited = new MappedStateTable(startKey.length, directory)) {
+            visited.add(startKey, MappedStateTable.NO_PARENT);
+            uniqueConfigs = 1;
+            totalConfigs = 1;
+            for (int next = 0; next < visited.size(); next++) {
+                Configuration current = start.decode(visited.key(next));
+                if (current.isSolution()) {
+                    return constructPath(visited, next);
+                }
+                Collection<Configuration> successors = current.getNeighbors();
+                totalConfigs += successors.size();
+                for (Configuration nbr : successors) {
+                    if (visited.add(((CompactConfiguration) nbr).encode(), next) >= 0) {
+                        uniqueConfigs += 1;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Constructs a path by following the predecessor records back to the
+     * start and returns the sequence from start to finish configurations
+     *
+     * @param visited the table of visited configurations
+     * @param end record number of the finishing configuration
+     * @return a list containing the sequence of configurations comprising
+     * the path
+     */
+    private Collection<Configuration> constructPath(MappedStateTable visited, int end){
+        LinkedList<Configuration> path = new LinkedList<>();
+        for (int step = end; step != MappedStateTable.NO_PARENT; step = visited.parent(step)) {
+            path.addFirst(start.decode(visited.key(step)));
+        }
+        return new ArrayList<>(path);
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public int getTotalConfigs() { return totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public int getUniqueConfigs() { return uniqueConfigs; }
+}
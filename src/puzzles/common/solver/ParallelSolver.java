@@ -0,0 +1,267 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A level-synchronous version of the breadth first search in {@link Solver}.
+ * Each layer of the search is split into chunks that are expanded at the
+ * same time on a fork join pool, and the successors are merged into a
+ * concurrent visited map. Like {@link Solver}, configurations are looked
+ * up by their canonical form if the puzzle has symmetries, and new ones
+ * that are known dead ends, see {@link PrunableConfiguration}, are dropped.
+ *
+ * Every configuration is given a rank that is the position its parent has
+ * in the overall visitation order together with its own position among
+ * the parent's neighbors. Keeping the smallest rank for each configuration
+ * makes the next layer, the predecessors, and the number of total and
+ * unique configurations the same as the ones {@link Solver} reports, no
+ * matter the order the threads finish in.
+ *
+ * @author Tiffany Lee
+ */
+public class ParallelSolver {
+    /** Number of bits of a rank used for the position among the neighbors */
+    private static final int NEIGHBOR_BITS = 20;
+    /** Rank of the start configuration, it has no predecessor */
+    private static final long START_RANK = -1L;
+    /** Number of chunks each thread is given per layer */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * A configuration that was reached with a smaller rank than it had before
+     *
+     * @param rank the rank it was reached with
+     * @param config the configuration
+     * @param key what the configuration is looked up by
+     */
+    private record Claim(long rank, Configuration config, Configuration key) {}
+
+    /** Stores the rank of each visited configuration, by its key */
+    private final ConcurrentHashMap<Configuration, Long> ranks = new ConcurrentHashMap<>();
+    /** Stores every configuration that was expanded, in visitation order */
+    private final List<Configuration> visited = new ArrayList<>();
+    /** The start configuration */
+    private final Configuration start;
+    /** Number of threads expanding a layer */
+    private final int parallelism;
+    /** Total number of configurations it took to get to a solution */
+    private long totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private int uniqueConfigs = 0;
+
+    /**
+     * Initialize a new solver that uses every available processor
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public ParallelSolver(Configuration start){
+        this(start, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initialize a new solver
+     *
+     * @param start The start configuration of a puzzle
+     * @param parallelism number of threads used to expand each layer
+     */
+    public ParallelSolver(Configuration start, int parallelism){
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.start = start;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Tries to find a solution, if one exists, for a given configuration
+     *
+     * @return A solution, or null if no solution
+     */
+    public Collection<Configuration> solve(){
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return search(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the search one layer at a time on the given pool
+     *
+     * @param pool the pool that expands the layers
+     * @return A solution, or null if no solution
+     */
+    private Collection<Configuration> search(ForkJoinPool pool){
+        ranks.put(Solver.key(start), START_RANK);
+        totalConfigs = 1;
+        List<Configuration> layer = List.of(start);
+        while(!layer.isEmpty()){
+            int solution = firstSolution(pool, layer);
+            int expand = solution < 0 ? layer.size() : solution;
+            List<Configuration> next = expand(pool, layer, expand);
+            uniqueConfigs = ranks.size();
+            if (solution >= 0) {
+                return constructPath(layer.get(solution));
+            }
+            layer = next;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the first configuration of a layer that is a solution
+     *
+     * @param pool the pool that checks the layer
+     * @param layer the configurations at the current depth
+     * @return index of the first solution, or -1 if there is none
+     */
+    private int firstSolution(ForkJoinPool pool, List<Configuration> layer){
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int[] chunk : chunks(layer.size())) {
+            tasks.add(() -> {
+                for (int i = chunk[0]; i < chunk[1]; i++) {
+                    if (layer.get(i).isSolution()) {
+                        return i;
+                    }
+                }
+                return -1;
+            });
+        }
+        for (Future<Integer> found : pool.invokeAll(tasks)) {
+            int index = join(found);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Expands the first configurations of a layer and builds the next layer
+     * in the same order a serial breadth first search would queue it
+     *
+     * @param pool the pool that expands the layer
+     * @param layer the configurations at the current depth
+     * @param count how many configurations of the layer to expand
+     * @return the configurations at the next depth
+     */
+    private List<Configuration> expand(ForkJoinPool pool, List<Configuration> layer, int count){
+        long base = visited.size();
+        visited.addAll(layer.subList(0, count));
+        List<int[]> chunks = chunks(count);
+        long[] generated = new long[chunks.size()];
+        List<Callable<List<Claim>>> tasks = new ArrayList<>();
+        for (int c = 0; c < chunks.size(); c++) {
+            int[] chunk = chunks.get(c);
+            int slot = c;
+            tasks.add(() -> {
+                List<Claim> claims = new ArrayList<>();
+                for (int i = chunk[0]; i < chunk[1]; i++) {
+                    Collection<Configuration> successors = layer.get(i).getNeighbors();
+                    generated[slot] += successors.size();
+                    long rank = (base + i) << NEIGHBOR_BITS;
+                    for (Configuration nbr : successors) {
+                        long mine = rank++;
+                        Configuration key = Solver.key(nbr);
+                        // only a configuration not seen before is checked for
+                        // a dead end, a dead end is never put in the map
+                        if (!ranks.containsKey(key) && PrunableConfiguration.prunes(nbr)) {
+                            continue;
+                        }
+                        if (ranks.merge(key, mine, Math::min) == mine) {
+                            claims.add(new Claim(mine, nbr, key));
+                        }
+                    }
+                }
+                return claims;
+            });
+        }
+        List<Claim> claims = new ArrayList<>();
+        for (Future<List<Claim>> claimed : pool.invokeAll(tasks)) {
+            claims.addAll(join(claimed));
+        }
+        for (long total : generated) {
+            totalConfigs += total;
+        }
+        // a configuration may have been claimed by several parents of this
+        // layer, only the claim holding the smallest rank is queued
+        claims.removeIf(claim -> ranks.get(claim.key()) != claim.rank());
+        claims.sort(Comparator.comparingLong(Claim::rank));
+        List<Configuration> next = new ArrayList<>(claims.size());
+        for (Claim claim : claims) {
+            next.add(claim.config());
+        }
+        return next;
+    }
+
+    /**
+     * Splits a layer into contiguous chunks for the threads
+     *
+     * @param size number of configurations in the layer
+     * @return list of [from, to) index pairs
+     */
+    private List<int[]> chunks(int size){
+        List<int[]> chunks = new ArrayList<>();
+        int step = Math.max(1, size / (parallelism * CHUNKS_PER_THREAD));
+        for (int from = 0; from < size; from += step) {
+            chunks.add(new int[]{from, Math.min(size, from + step)});
+        }
+        return chunks;
+    }
+
+    /**
+     * Waits for a task and rethrows anything it threw
+     *
+     * @param future the task
+     * @param <T> type of the result
+     * @return the result of the task
+     */
+    private static <T> T join(Future<T> future){
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("solve interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Constructs a path by following the ranks back to the start and
+     * returns the sequence from start to finish configurations
+     *
+     * @param end finishing configuration
+     * @return a list containing the sequence of configurations comprising
+     * the path
+     */
+    private Collection<Configuration> constructPath(Configuration end){
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration current = end;
+        long rank = ranks.get(Solver.key(current));
+        while(rank != START_RANK){
+            path.addFirst(current);
+            current = visited.get((int) (rank >>> NEIGHBOR_BITS));
+            rank = ranks.get(Solver.key(current));
+        }
+        path.addFirst(start);
+        return new ArrayList<>(path);
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public int getTotalConfigs() { return (int) totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public int getUniqueConfigs() { return uniqueConfigs; }
+}
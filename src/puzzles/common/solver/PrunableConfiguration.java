@@ -0,0 +1,32 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can sometimes tell, without searching, that no
+ * solution can be reached from it. {@link Solver} and
+ * {@link DepthFirstSolver} drop such configurations as soon as they are
+ * made instead of queueing them, so they are counted in the total but
+ * never in the unique configurations.
+ *
+ * @author Tiffany Lee
+ */
+public interface PrunableConfiguration extends Configuration {
+    /**
+     * Is it certain that no solution can be reached from here? It may
+     * miss dead ends, but must never claim one that has a solution, or
+     * solutions would be lost.
+     *
+     * @return true if no solution can be reached, false if one might be
+     */
+    boolean isDeadEnd();
+
+    /**
+     * Is a configuration known to be a dead end?
+     *
+     * @param config any configuration
+     * @return true if it is a {@link PrunableConfiguration} that is a dead
+     * end, false otherwise
+     */
+    static boolean prunes(Configuration config){
+        return config instanceof PrunableConfiguration prunable && prunable.isDeadEnd();
+    }
+}
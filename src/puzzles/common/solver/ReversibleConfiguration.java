@@ -0,0 +1,35 @@
+package puzzles.common.solver;
+
+import java.util.Collection;
+
+/**
+ * A configuration whose moves can also be generated backwards, from a
+ * configuration to the ones that lead to it. Puzzles whose solutions are
+ * fully known ahead of time can implement this so they can be searched
+ * from both ends at once.
+ *
+ * @author Tiffany Lee
+ */
+public interface ReversibleConfiguration extends Configuration {
+    /**
+     * Get the collection of configurations that have this one as a neighbor
+     *
+     * @return all predecessors
+     */
+    Collection<Configuration> getPredecessors();
+
+    /**
+     * Can every move made from here, and from every configuration reached
+     * from here, be undone by a single move back?
+     *
+     * @return true if every move can be undone, false if some cannot
+     */
+    boolean isUndoable();
+
+    /**
+     * Get every configuration that is a solution of this puzzle
+     *
+     * @return all goal configurations
+     */
+    Collection<Configuration> getGoals();
+}
@@ -0,0 +1,316 @@
+package puzzles.common.solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A file of start configurations already solved, or already proven to
+ * have no solution, so solving them again is a lookup instead of a search.
+ * <ul>
+ *     <li>
+ *         Records are only ever appended. Each one holds the shape of the
+ *         puzzle, the encoding of a start configuration, and the encodings
+ *         of the rest of its solution, or a mark saying it has none.
+ *     </li>
+ *     <li>
+ *         An index from shape and encoding to where the record starts is
+ *         kept in memory. It is built by reading the file once when it is
+ *         opened, and brought up to date with whatever other processes have
+ *         appended since whenever a lookup misses.
+ *     </li>
+ *     <li>
+ *         Appends are made under a lock on the file, so several processes
+ *         can share it. A record cut short by a crash is cut off the end
+ *         the next time the file is opened.
+ *     </li>
+ * </ul>
+ * Only {@link CompactConfiguration}s can be stored.
+ *
+ * @author Tiffany Lee
+ */
+public class SolutionStore implements AutoCloseable {
+    /** Number of configurations stored for a start with no solution */
+    private static final int UNSOLVABLE = -1;
+    /** Property naming the file {@link #shared()} opens */
+    private static final String FILE_PROPERTY = "puzzles.solutions";
+
+    /** The store opened by {@link #shared()}, once it has been */
+    private static SolutionStore shared;
+    /** Has {@link #shared()} tried to open the store yet? */
+    private static boolean sharedOpened = false;
+
+    /**
+     * The key a record is indexed by
+     *
+     * @param shape what the encoding leaves out, see {@link CompactConfiguration#shape()}
+     * @param state the encoding of the start configuration
+     */
+    private record Key(String shape, StateKey state) {}
+
+    /** Channel of the file */
+    private final FileChannel file;
+    /** Where each record starts in the file */
+    private final HashMap<Key, Long> index = new HashMap<>();
+    /** Length of the file that has been read into the index */
+    private long indexed = 0;
+
+    /**
+     * Opens a store, creating the file if there is none yet
+     *
+     * @param path the file
+     * @throws UncheckedIOException if the file cannot be opened or read
+     */
+    @SuppressWarnings("try")
+    public SolutionStore(Path path){
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            file = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try (FileLock lock = file.lock()) {
+                refresh();
+                if (indexed < file.size()) {
+                    file.truncate(indexed);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the store every hint shares. It lives in the file named by the
+     * puzzles.solutions system property, or in .puzzles/solutions.db under
+     * the user's home directory if that is not set.
+     *
+     * @return the store, or null if it cannot be opened
+     */
+    public static synchronized SolutionStore shared(){
+        if (!sharedOpened) {
+            sharedOpened = true;
+            String name = System.getProperty(FILE_PROPERTY);
+            Path path = name != null ? Path.of(name)
+                    : Path.of(System.getProperty("user.home"), ".puzzles", "solutions.db");
+            try {
+                shared = new SolutionStore(path);
+            } catch (UncheckedIOException e) {
+                System.err.println("Solution store unavailable: " + e.getMessage());
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Looks up what is known about solving a start configuration
+     *
+     * @param start the start configuration
+     * @return {@link SolveResult.Outcome#SOLVED} with the solution,
+     * {@link SolveResult.Outcome#UNSOLVABLE}, or null if it is not known
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @SuppressWarnings("try")
+    public synchronized SolveResult lookup(Configuration start){
+        if (!(start instanceof CompactConfiguration compact)) {
+            return null;
+        }
+        long began = System.nanoTime();
+        try {
+            Key key = new Key(compact.shape(), new StateKey(compact.encode()));
+            Long offset = index.get(key);
+            if (offset == null && file.size() > indexed) {
+                try (FileLock lock = file.lock(0, Long.MAX_VALUE, true)) {
+                    refresh();
+                }
+                offset = index.get(key);
+            }
+            if (offset == null) {
+                return null;
+            }
+            ByteBuffer record = read(offset);
+            skip(record);
+            skip(record);
+            int steps = record.getInt();
+            if (steps == UNSOLVABLE) {
+                return new SolveResult(SolveResult.Outcome.UNSOLVABLE, null, 0, 0, System.nanoTime() - began);
+            }
+            List<Configuration> path = new ArrayList<>(steps);
+            path.add(start);
+            for (int step = 1; step < steps; step++) {
+                path.add(compact.decode(bytes(record)));
+            }
+            return new SolveResult(SolveResult.Outcome.SOLVED, path, 0, 0, System.nanoTime() - began);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remembers how a solve of a start configuration ended, if it found a
+     * solution or proved there is none. A solution is also remembered for
+     * every configuration along it, since the rest of it solves each one.
+     *
+     * @param start the start configuration
+     * @param result how the solve ended
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public synchronized void record(Configuration start, SolveResult result){
+        if (!(start instanceof CompactConfiguration)) {
+            return;
+        }
+        if (result.outcome() == SolveResult.Outcome.UNSOLVABLE) {
+            append((CompactConfiguration) start, List.of(), UNSOLVABLE);
+        } else if (result.outcome() == SolveResult.Outcome.SOLVED) {
+            List<Configuration> path = result.path();
+            for (int first = 0; first < path.size(); first++) {
+                append((CompactConfiguration) path.get(first), path.subList(first + 1, path.size()),
+                        path.size() - first);
+            }
+        }
+    }
+
+    /**
+     * Appends a record unless the start is already in the store
+     *
+     * @param start the start configuration
+     * @param rest the configurations of its solution after the start
+     * @param steps number of configurations in its solution, or {@link #UNSOLVABLE}
+     */
+    @SuppressWarnings("try")
+    private void append(CompactConfiguration start, List<Configuration> rest, int steps){
+        byte[] shape = start.shape().getBytes(StandardCharsets.UTF_8);
+        byte[] state = start.encode();
+        List<byte[]> encodings = new ArrayList<>(rest.size());
+        int length = 3 * Integer.BYTES + shape.length + state.length;
+        for (Configuration step : rest) {
+            byte[] encoding = ((CompactConfiguration) step).encode();
+            encodings.add(encoding);
+            length += Integer.BYTES + encoding.length;
+        }
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length);
+        record.putInt(length);
+        put(record, shape);
+        put(record, state);
+        record.putInt(steps);
+        for (byte[] encoding : encodings) {
+            put(record, encoding);
+        }
+        record.flip();
+        try (FileLock lock = file.lock()) {
+            refresh();
+            Key key = new Key(start.shape(), new StateKey(state));
+            if (!index.containsKey(key)) {
+                long offset = file.size();
+                while (record.hasRemaining()) {
+                    file.write(record, offset + record.position());
+                }
+                index.put(key, offset);
+                indexed = offset + record.limit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the records appended since the index was last brought up to
+     * date into the index, stopping at a record that is cut short
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private void refresh() throws IOException {
+        long size = file.size();
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        while (indexed + Integer.BYTES <= size) {
+            header.clear();
+            readFully(header, indexed);
+            int length = header.getInt(0);
+            if (length < 0 || indexed + Integer.BYTES + length > size) {
+                break;
+            }
+            ByteBuffer record = read(indexed);
+            String shape = new String(bytes(record), StandardCharsets.UTF_8);
+            index.put(new Key(shape, new StateKey(bytes(record))), indexed);
+            indexed += Integer.BYTES + length;
+        }
+    }
+
+    /**
+     * Reads the record starting at an offset
+     *
+     * @param offset where the record starts
+     * @return the record after its length
+     * @throws IOException if the file cannot be read
+     */
+    private ByteBuffer read(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(header, offset);
+        ByteBuffer record = ByteBuffer.allocate(header.getInt(0));
+        readFully(record, offset + Integer.BYTES);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Fills a buffer from the file
+     *
+     * @param buffer the buffer
+     * @param offset where in the file to start reading
+     * @throws IOException if the file ends first or cannot be read
+     */
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (file.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Solution store ends in the middle of a record");
+            }
+        }
+    }
+
+    /**
+     * Writes a length and then the bytes
+     */
+    private static void put(ByteBuffer record, byte[] bytes){
+        record.putInt(bytes.length);
+        record.put(bytes);
+    }
+
+    /**
+     * Reads bytes written by {@link #put}
+     */
+    private static byte[] bytes(ByteBuffer record){
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Skips over bytes written by {@link #put}
+     */
+    private static void skip(ByteBuffer record){
+        int length = record.getInt();
+        record.position(record.position() + length);
+    }
+
+    /**
+     * Closes the file
+     */
+    @Override
+    public synchronized void close(){
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package puzzles.common.solver;
+
+import java.time.Duration;
+
+/**
+ * Limits on how much a single solve may use before it gives up. Each limit
+ * is off unless it is set with one of the {@code with} methods, which
+ * return a new budget and leave this one unchanged.
+ *
+ * @param timeLimit longest the solve may run, or null for no limit
+ * @param maxUniqueConfigs most unique configurations it may visit, or 0 for no limit
+ * @param heapCeiling most bytes of heap that may be in use, or 0 for no limit
+ * @param cancellation token that can stop the solve early, or null for none
+ *
+ * @author Tiffany Lee
+ */
+public record SolveBudget(Duration timeLimit, int maxUniqueConfigs, long heapCeiling,
+                          CancellationToken cancellation) {
+    /** A budget with no limits at all */
+    public static final SolveBudget UNLIMITED = new SolveBudget(null, 0, 0, null);
+    /**
+     * The budget of a hint in a game: it gives up after ten seconds, or
+     * when the heap is nearly full, so a board too big to solve cannot
+     * freeze the game
+     */
+    public static final SolveBudget HINT = UNLIMITED
+            .withTimeLimit(Duration.ofSeconds(10))
+            .withHeapCeiling(Runtime.getRuntime().maxMemory() / 10 * 9);
+    /** Number of checks between measurements of the heap */
+    private static final int HEAP_CHECK_INTERVAL = 1024;
+
+    /**
+     * Gets a copy of this budget with a time limit
+     *
+     * @param timeLimit longest the solve may run
+     * @return the new budget
+     */
+    public SolveBudget withTimeLimit(Duration timeLimit) {
+        return new SolveBudget(timeLimit, maxUniqueConfigs, heapCeiling, cancellation);
+    }
+
+    /**
+     * Gets a copy of this budget with a limit on unique configurations
+     *
+     * @param maxUniqueConfigs most unique configurations the solve may visit
+     * @return the new budget
+     */
+    public SolveBudget withMaxUniqueConfigs(int maxUniqueConfigs) {
+        return new SolveBudget(timeLimit, maxUniqueConfigs, heapCeiling, cancellation);
+    }
+
+    /**
+     * Gets a copy of this budget with a ceiling on the heap in use
+     *
+     * @param heapCeiling most bytes of heap that may be in use
+     * @return the new budget
+     */
+    public SolveBudget withHeapCeiling(long heapCeiling) {
+        return new SolveBudget(timeLimit, maxUniqueConfigs, heapCeiling, cancellation);
+    }
+
+    /**
+     * Gets a copy of this budget that can be cancelled with a token
+     *
+     * @param cancellation token that can stop the solve early
+     * @return the new budget
+     */
+    public SolveBudget withCancellation(CancellationToken cancellation) {
+        return new SolveBudget(timeLimit, maxUniqueConfigs, heapCeiling, cancellation);
+    }
+
+    /**
+     * Gets the time the solve must be done by
+     *
+     * @param startedNanos when the solve started, from {@link System#nanoTime()}
+     * @return the deadline, or {@link Long#MAX_VALUE} if there is no time limit
+     */
+    long deadline(long startedNanos) {
+        return timeLimit == null ? Long.MAX_VALUE : startedNanos + timeLimit.toNanos();
+    }
+
+    /**
+     * Checks whether a solve has to stop before expanding another
+     * configuration. The heap is only measured every so often since it is
+     * the slowest limit to check.
+     *
+     * @param uniqueConfigs unique configurations visited so far
+     * @param counter a count that goes up as the solve goes on, the heap is
+     *                measured when it is a multiple of the check interval
+     * @param deadline time the solve must be done by, from {@link #deadline}
+     * @return why it has to stop, or null if it can keep going
+     */
+    SolveResult.Outcome exceeded(int uniqueConfigs, long counter, long deadline) {
+        if (isCancelled()) {
+            return SolveResult.Outcome.CANCELLED;
+        } else if (System.nanoTime() > deadline
+                || (maxUniqueConfigs > 0 && uniqueConfigs > maxUniqueConfigs)
+                || (heapCeiling > 0 && counter % HEAP_CHECK_INTERVAL == 0
+                    && LayerStats.currentHeapUsed() > heapCeiling)) {
+            return SolveResult.Outcome.BUDGET_EXHAUSTED;
+        }
+        return null;
+    }
+
+    /**
+     * Has the solve been asked to stop?
+     *
+     * @return true if the token was cancelled, false otherwise
+     */
+    boolean isCancelled() {
+        return cancellation != null && cancellation.isCancelled();
+    }
+}
@@ -0,0 +1,39 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * What a budgeted solve ended with, along with the statistics it had
+ * gathered by then.
+ *
+ * @param outcome how the solve ended
+ * @param path the solution from start to finish, or null if none was found
+ * @param totalConfigs total number of configurations when it ended
+ * @param uniqueConfigs number of unique configurations when it ended
+ * @param elapsedNanos how long it ran, in nanoseconds
+ *
+ * @author Tiffany Lee
+ */
+public record SolveResult(Outcome outcome, List<Configuration> path,
+                          int totalConfigs, int uniqueConfigs, long elapsedNanos) {
+    /**
+     * The ways a budgeted solve can end
+     */
+    public enum Outcome {
+        /** a solution was found */
+        SOLVED,
+        /** every reachable configuration was visited and none is a solution */
+        UNSOLVABLE,
+        /** the time, unique configuration, or heap limit was reached first */
+        BUDGET_EXHAUSTED,
+        /** the cancellation token was raised first */
+        CANCELLED
+    }
+
+    /**
+     * Was a solution found?
+     *
+     * @return true if solved, false otherwise
+     */
+    public boolean isSolved() { return outcome == Outcome.SOLVED; }
+}
@@ -1,21 +1,58 @@
 package puzzles.common.solver;
 
+import puzzles.common.Observer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class represents the common breadth first search algorithm.
  * It takes the start of a puzzle and has a solver that returns a
- * solution, if one exists.
+ * solution, if one exists. Configurations of puzzles with symmetries
+ * are looked up by their canonical form, so only one of each group of
+ * turned or flipped boards is visited. Configurations that are known dead
+ * ends, see {@link PrunableConfiguration}, are never queued.
+ *
+ * A search of a {@link CompactConfiguration} can be checkpointed to a
+ * file every so often, or whenever asked, and a later solver can resume
+ * from that file and end with the same path and counts.
  *
  * @author Tiffany Lee
  */
 public class Solver{
-    /** Stores the predecessors of each configuration */
-    private final HashMap<Configuration, Configuration> predecessors = new HashMap<>();
-    /** Stores the order of the visitation of each configuration */
-    private final Queue<Configuration> queue = new LinkedList<>();
+    /**
+     * Stores each configuration with its predecessor, in the order of
+     * visitation, so it is also the queue
+     */
+    private final StateArena visited = new StateArena();
+    /** the collection of observers told about each finished layer */
+    private final List<Observer<Solver, LayerStats>> observers = new LinkedList<>();
     /** The start configuration */
     private final Configuration start;
+    /** Where solutions are looked up before searching, or null for nowhere */
+    private SolutionStore store = null;
+    /** File checkpoints are written to, or null for none */
+    private Path checkpointFile = null;
+    /** Time between checkpoints in nanoseconds, or 0 to only write them when asked */
+    private long checkpointNanos = 0;
+    /** A checkpoint that was asked for, completed once it is written */
+    private final AtomicReference<CompletableFuture<Void>> checkpointRequest = new AtomicReference<>();
+    /** Is a search running? */
+    private volatile boolean searching = false;
+    /** Writes checkpoints so the search does not wait for them */
+    private ExecutorService checkpointWriter = null;
+    /** The checkpoint being written, or null if none has been */
+    private Future<?> writing = null;
+    /** A checkpoint to carry on from, until the search picks it up */
+    private SolverCheckpoint resumed = null;
     /** Total number of configurations it took to get to a solution */
     private int totalConfigs = 0;
     /** Number of unique configurations it took to get to a solution */
@@ -30,55 +67,329 @@ public class Solver{
         this.start = start;
     }
 
+    /**
+     * Adds an observer that is told the statistics of each layer of the
+     * search as soon as the layer is done
+     *
+     * @param observer the observer
+     */
+    public void addObserver(Observer<Solver, LayerStats> observer) {
+        this.observers.add(observer);
+    }
+
     /**
      * Tries to find a solution, if one exists, for a given configuration
      *
      * @return A solution, or null if no solution
      */
     public Collection<Configuration> solve(){
-        queue.add(start);
-        predecessors.put(start, null);
-        uniqueConfigs += queue.size();
-        totalConfigs += predecessors.size();
-        while(!queue.isEmpty()){
-            Configuration current = queue.remove();
-            if (current.isSolution()) {
-                return constructPath(predecessors, current);
-            } else {
-                Collection<Configuration> successors = current.getNeighbors();
-                totalConfigs += successors.size();
-                for (Configuration nbr : successors) {
-                    if (!predecessors.containsKey(nbr)) {
-                        uniqueConfigs += 1;
-                        predecessors.put(nbr, current);
-                        queue.add(nbr);
-                    }
+        return solve(SolveBudget.UNLIMITED).path();
+    }
+
+    /**
+     * Has the solver look each start up in a store before searching, and
+     * remember in it how each search ended
+     *
+     * @param store the store, or null to always search
+     */
+    public void useStore(SolutionStore store){
+        this.store = store;
+    }
+
+    /**
+     * Has the search write checkpoints to a file. Each one is written on
+     * another thread, so the search only stops long enough to note how far
+     * it has got.
+     *
+     * @param file the checkpoint file, replaced by each new checkpoint
+     * @param interval time between checkpoints, or null to only write them
+     *                 when {@link #requestCheckpoint()} is called
+     */
+    public void checkpointTo(Path file, Duration interval){
+        this.checkpointFile = file;
+        this.checkpointNanos = interval == null ? 0 : interval.toNanos();
+    }
+
+    /**
+     * Asks for a checkpoint to be written as soon as possible. It can be
+     * called from any thread, like a shutdown hook.
+     *
+     * @return completed once the checkpoint is written, right away if no
+     * search is running
+     * @throws IllegalStateException if there is no checkpoint file
+     */
+    public CompletableFuture<Void> requestCheckpoint(){
+        if (checkpointFile == null) {
+            throw new IllegalStateException("No checkpoint file");
+        } else if (!searching) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> request = new CompletableFuture<>();
+        CompletableFuture<Void> pending = checkpointRequest.compareAndExchange(null, request);
+        return pending != null ? pending : request;
+    }
+
+    /**
+     * Loads a checkpoint so the next solve carries on from it instead of
+     * starting over
+     *
+     * @param file the checkpoint file
+     * @throws IllegalArgumentException if the start is not a {@link CompactConfiguration}
+     * @throws UncheckedIOException if the file cannot be read or is of another search
+     */
+    public void resumeFrom(Path file){
+        if (!(start instanceof CompactConfiguration compact)) {
+            throw new IllegalArgumentException("Only compact configurations can be resumed");
+        }
+        try {
+            SolverCheckpoint checkpoint = SolverCheckpoint.read(file, compact);
+            for (int index = 0; index < checkpoint.size; index++) {
+                Configuration config = checkpoint.states[index];
+                visited.add(config, key(config), checkpoint.parents[index]);
+            }
+            totalConfigs = checkpoint.totalConfigs;
+            uniqueConfigs = checkpoint.uniqueConfigs;
+            resumed = checkpoint;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Tries to find a solution within a budget. If the budget runs out or
+     * the solve is cancelled, it stops and reports how far it got instead.
+     * A start already in the store is not searched at all.
+     *
+     * @param budget the limits the solve must stay within
+     * @return how the solve ended, with the solution if one was found
+     */
+    public SolveResult solve(SolveBudget budget){
+        SolveResult known = store == null ? null : store.lookup(start);
+        if (known != null) {
+            return known;
+        }
+        SolveResult result = searchWithin(budget);
+        if (store != null) {
+            store.record(start, result);
+        }
+        return result;
+    }
+
+    /**
+     * Searches for a solution within a budget
+     *
+     * @param budget the limits the search must stay within
+     * @return how the search ended, with the solution if one was found
+     */
+    private SolveResult searchWithin(SolveBudget budget){
+        long began = System.nanoTime();
+        long deadline = budget.deadline(began);
+        long nextCheckpoint = checkpointNanos > 0 ? began + checkpointNanos : Long.MAX_VALUE;
+        int first = 0;
+        Layer layer;
+        if (resumed != null) {
+            first = resumed.cursor;
+            layer = new Layer(resumed.layerDepth, resumed.layerBegin, resumed.layerEnd,
+                    resumed.layerTotal, resumed.layerUnique, began);
+            resumed = null;
+        } else {
+            visited.add(start, key(start), StateArena.NO_PARENT);
+            uniqueConfigs += visited.size();
+            totalConfigs += visited.size();
+            layer = new Layer(0, 0, began);
+        }
+        searching = true;
+        try {
+            // everything before the cursor has been expanded, everything
+            // after it is still queued
+            for (int cursor = first; cursor < visited.size(); cursor++) {
+                SolveResult.Outcome stop = budget.exceeded(uniqueConfigs, cursor, deadline);
+                if (stop != null) {
+                    finishLayer(layer, cursor, began);
+                    return result(stop, null, began);
+                }
+                if (cursor == layer.end) {
+                    layer = finishLayer(layer, cursor, began);
+                }
+                if (checkpointFile != null
+                        && (checkpointRequest.get() != null || System.nanoTime() >= nextCheckpoint)) {
+                    checkpoint(cursor, layer);
+                    nextCheckpoint = checkpointNanos > 0 ? System.nanoTime() + checkpointNanos : Long.MAX_VALUE;
+                }
+                Configuration current = visited.get(cursor);
+                if (current.isSolution()) {
+                    finishLayer(layer, cursor, began);
+                    return result(SolveResult.Outcome.SOLVED, constructPath(cursor), began);
+                } else {
+                    int parent = cursor;
+                    current.forEachNeighbor(nbr -> {
+                        totalConfigs += 1;
+                        if (visited.add(nbr, key(nbr), parent, PrunableConfiguration::prunes) >= 0) {
+                            uniqueConfigs += 1;
+                        }
+                    });
                 }
             }
+            finishLayer(layer, visited.size(), began);
+            return result(SolveResult.Outcome.UNSOLVABLE, null, began);
+        } finally {
+            searching = false;
+            CompletableFuture<Void> request = checkpointRequest.getAndSet(null);
+            if (request != null) {
+                request.complete(null);
+            }
         }
-        return null;
     }
 
     /**
-     * Constructs a path from the predecessor map and returns the sequence
-     * from start to finish configurations
+     * Notes how far the search has got and hands it to the writer thread.
+     * A checkpoint due to the interval is skipped if the last one is still
+     * being written; one that was asked for is always written.
      *
-     * @param predecessors Map used to reconstruct the path
-     * @param end finishing configuration
-     * @return a list containing the sequence of configurations comprising
-     * the path, an empty list if no path exists
-     */
-    public Collection<Configuration> constructPath(HashMap<Configuration, Configuration> predecessors,
-                                                   Configuration end){
-        List<Configuration> path = new ArrayList<>();
-        if(predecessors.containsKey(end)) {
-            while(end != start){
-                path.add(0, end);
-                end = predecessors.get(end);
+     * @param cursor index of the next configuration to expand
+     * @param layer the current layer
+     */
+    private void checkpoint(int cursor, Layer layer){
+        CompletableFuture<Void> request = checkpointRequest.getAndSet(null);
+        if (request == null && writing != null && !writing.isDone()) {
+            return;
+        }
+        SolverCheckpoint snapshot = new SolverCheckpoint(visited.states(), visited.parents(),
+                visited.size(), cursor, totalConfigs, uniqueConfigs, layer.depth, layer.begin,
+                layer.end, layer.totalAtBegin, layer.uniqueAtBegin);
+        Path file = checkpointFile;
+        if (checkpointWriter == null) {
+            checkpointWriter = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "checkpoint-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        writing = checkpointWriter.submit(() -> {
+            try {
+                snapshot.write(file);
+                if (request != null) {
+                    request.complete(null);
+                }
+            } catch (IOException e) {
+                System.err.println("Checkpoint failed: " + e.getMessage());
+                if (request != null) {
+                    request.completeExceptionally(e);
+                }
             }
-            path.add(0, start);
+        });
+    }
+
+    /**
+     * Gets what a configuration is looked up by in the visited arena: its
+     * canonical form if the puzzle has symmetries, otherwise itself
+     *
+     * @param config the configuration
+     * @return its key
+     */
+    static Configuration key(Configuration config){
+        return config instanceof SymmetricConfiguration symmetric ? symmetric.canonical() : config;
+    }
+
+    /**
+     * Packs up how the solve ended
+     *
+     * @param outcome how it ended
+     * @param path the solution, or null if none was found
+     * @param began when it started
+     * @return the result
+     */
+    private SolveResult result(SolveResult.Outcome outcome, List<Configuration> path, long began){
+        return new SolveResult(outcome, path, totalConfigs, uniqueConfigs, System.nanoTime() - began);
+    }
+
+    /**
+     * Where a layer of the search starts and what the counts were then
+     */
+    private final class Layer {
+        /** number of moves from the start */
+        private final int depth;
+        /** index of the first configuration of the layer */
+        private final int begin;
+        /** index just past the last configuration of the layer */
+        private final int end;
+        /** total configurations when the layer started */
+        private final long totalAtBegin;
+        /** unique configurations when the layer started */
+        private final long uniqueAtBegin;
+        /** when the layer started */
+        private final long startedNanos;
+
+        /**
+         * Marks the start of a layer, which holds every configuration
+         * queued so far that has not been expanded
+         *
+         * @param depth number of moves from the start
+         * @param begin index of the first configuration of the layer
+         * @param startedNanos when the layer started
+         */
+        private Layer(int depth, int begin, long startedNanos) {
+            this.depth = depth;
+            this.begin = begin;
+            this.end = visited.size();
+            this.totalAtBegin = totalConfigs;
+            this.uniqueAtBegin = uniqueConfigs;
+            this.startedNanos = startedNanos;
         }
-        return path;
+
+        /**
+         * Marks the start of a layer that was saved in a checkpoint
+         *
+         * @param depth number of moves from the start
+         * @param begin index of the first configuration of the layer
+         * @param end index just past the last configuration of the layer
+         * @param totalAtBegin total configurations when the layer started
+         * @param uniqueAtBegin unique configurations when the layer started
+         * @param startedNanos when the layer was resumed
+         */
+        private Layer(int depth, int begin, int end, long totalAtBegin, long uniqueAtBegin,
+                      long startedNanos) {
+            this.depth = depth;
+            this.begin = begin;
+            this.end = end;
+            this.totalAtBegin = totalAtBegin;
+            this.uniqueAtBegin = uniqueAtBegin;
+            this.startedNanos = startedNanos;
+        }
+    }
+
+    /**
+     * Tells the observers about a layer that is done and starts the next
+     *
+     * @param layer the layer that is done
+     * @param expanded index just past the last configuration expanded
+     * @param began when the solve started
+     * @return the next layer
+     */
+    private Layer finishLayer(Layer layer, int expanded, long began) {
+        long now = System.nanoTime();
+        if (!observers.isEmpty()) {
+            LayerStats stats = new LayerStats(layer.depth, expanded - layer.begin,
+                    totalConfigs - layer.totalAtBegin, uniqueConfigs - layer.uniqueAtBegin,
+                    totalConfigs, uniqueConfigs, now - layer.startedNanos, now - began,
+                    LayerStats.currentHeapUsed());
+            for (var observer : observers) {
+                observer.update(this, stats);
+            }
+        }
+        return new Layer(layer.depth + 1, expanded, now);
+    }
+
+    /**
+     * Constructs a path from the predecessor indices and returns the
+     * sequence from start to finish configurations
+     *
+     * @param end index of the finishing configuration
+     * @return a list containing the sequence of configurations comprising
+     * the path
+     */
+    private List<Configuration> constructPath(int end){
+        return new ArrayList<>(Arrays.asList(visited.path(end)));
     }
 
     /**
@@ -0,0 +1,148 @@
+package puzzles.common.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Everything a {@link Solver} needs to carry on a search where it left
+ * off: the visited configurations in the order they were added, with the
+ * index of each one's predecessor, how far the queue has been expanded,
+ * the counters, and where the current layer started.
+ * <p>
+ * Taking one only copies references. The visited configurations are never
+ * changed once added, so the arrays of the arena can be shared with the
+ * search and written out on another thread while the search goes on.
+ * The file is written front to back into a temporary file that then
+ * replaces the checkpoint, so a crash part way leaves the last checkpoint.
+ *
+ * @author Tiffany Lee
+ */
+final class SolverCheckpoint {
+    /** First int of every checkpoint file */
+    private static final int MAGIC = 0x50434B31;
+    /** Size of the buffer the file is streamed through */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /** The visited configurations, only the first {@link #size} are part of it */
+    final Configuration[] states;
+    /** The index of the predecessor of each configuration */
+    final int[] parents;
+    /** Number of visited configurations */
+    final int size;
+    /** Index of the next configuration to expand */
+    final int cursor;
+    /** Total number of configurations so far */
+    final int totalConfigs;
+    /** Number of unique configurations so far */
+    final int uniqueConfigs;
+    /** Depth of the current layer */
+    final int layerDepth;
+    /** Index of the first configuration of the current layer */
+    final int layerBegin;
+    /** Index just past the last configuration of the current layer */
+    final int layerEnd;
+    /** Total configurations when the current layer started */
+    final long layerTotal;
+    /** Unique configurations when the current layer started */
+    final long layerUnique;
+
+    /**
+     * Holds the state of a search
+     */
+    SolverCheckpoint(Configuration[] states, int[] parents, int size, int cursor,
+                     int totalConfigs, int uniqueConfigs, int layerDepth, int layerBegin,
+                     int layerEnd, long layerTotal, long layerUnique) {
+        this.states = states;
+        this.parents = parents;
+        this.size = size;
+        this.cursor = cursor;
+        this.totalConfigs = totalConfigs;
+        this.uniqueConfigs = uniqueConfigs;
+        this.layerDepth = layerDepth;
+        this.layerBegin = layerBegin;
+        this.layerEnd = layerEnd;
+        this.layerTotal = layerTotal;
+        this.layerUnique = layerUnique;
+    }
+
+    /**
+     * Writes the checkpoint to a file, replacing it once it is complete
+     *
+     * @param file the checkpoint file
+     * @throws IOException if it cannot be written
+     */
+    void write(Path file) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+        CompactConfiguration first = (CompactConfiguration) states[0];
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(partial), BUFFER_BYTES))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(first.shape());
+            out.writeInt(size);
+            out.writeInt(cursor);
+            out.writeInt(totalConfigs);
+            out.writeInt(uniqueConfigs);
+            out.writeInt(layerDepth);
+            out.writeInt(layerBegin);
+            out.writeInt(layerEnd);
+            out.writeLong(layerTotal);
+            out.writeLong(layerUnique);
+            for (int index = 0; index < size; index++) {
+                byte[] state = ((CompactConfiguration) states[index]).encode();
+                out.writeInt(parents[index]);
+                out.writeInt(state.length);
+                out.write(state);
+            }
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint of a search from a start configuration
+     *
+     * @param file the checkpoint file
+     * @param start the start configuration, used to decode the others
+     * @return the checkpoint
+     * @throws IOException if it cannot be read, or is of another search
+     */
+    static SolverCheckpoint read(Path file, CompactConfiguration start) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a solver checkpoint");
+            }
+            if (!in.readUTF().equals(start.shape())) {
+                throw new IOException(file + " is a checkpoint of another puzzle");
+            }
+            int size = in.readInt();
+            int cursor = in.readInt();
+            int totalConfigs = in.readInt();
+            int uniqueConfigs = in.readInt();
+            int layerDepth = in.readInt();
+            int layerBegin = in.readInt();
+            int layerEnd = in.readInt();
+            long layerTotal = in.readLong();
+            long layerUnique = in.readLong();
+            Configuration[] states = new Configuration[size];
+            int[] parents = new int[size];
+            for (int index = 0; index < size; index++) {
+                parents[index] = in.readInt();
+                byte[] state = new byte[in.readInt()];
+                in.readFully(state);
+                states[index] = index == 0 ? start : start.decode(state);
+                if (index == 0 && !Arrays.equals(state, start.encode())) {
+                    throw new IOException(file + " is a checkpoint of another start");
+                }
+            }
+            return new SolverCheckpoint(states, parents, size, cursor, totalConfigs, uniqueConfigs,
+                    layerDepth, layerBegin, layerEnd, layerTotal, layerUnique);
+        }
+    }
+}
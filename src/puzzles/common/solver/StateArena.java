@@ -0,0 +1,254 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A store of visited configurations laid out as parallel arrays. The
+ * configuration added i-th lives at index i, together with its hash code
+ * and the index of its predecessor, and never moves. An open addressing
+ * table of indices finds a configuration by equality, so no entry or node
+ * object is allocated per configuration.
+ *
+ * A configuration can be added under a separate key, like its canonical
+ * form, so it is found by equality of the key while the configuration
+ * itself is what is kept for the path.
+ *
+ * A configuration turned away when it is added leaves only its key
+ * behind, in the same table but outside the numbered configurations, so
+ * reaching it again is turned away by the lookup alone.
+ *
+ * @author Tiffany Lee
+ */
+public class StateArena {
+    /** Index of the predecessor of a configuration that has none */
+    public static final int NO_PARENT = -1;
+    /** Number of configurations room is made for at first */
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    /** Multiplier that spreads hash codes over the table (Fibonacci hashing) */
+    private static final int SPREAD = 0x9E3779B9;
+
+    /** The configurations, in the order they were added */
+    private Configuration[] states = new Configuration[INITIAL_CAPACITY];
+    /**
+     * The key each configuration was added under, or null while every
+     * configuration is its own key
+     */
+    private Configuration[] keys = null;
+    /** The hash code of the key of each configuration */
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    /** The index of the predecessor of each configuration */
+    private int[] parents = new int[INITIAL_CAPACITY];
+    /** The keys of the configurations turned away, in the order they were */
+    private Configuration[] rejected = new Configuration[0];
+    /** The hash code of each key turned away */
+    private int[] rejectedHashes = new int[0];
+    /** Number of keys turned away */
+    private int rejectedSize = 0;
+    /**
+     * Open addressing table, each slot is an index plus one, minus the
+     * number of a key turned away plus one, or 0 if empty
+     */
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    /** Number of bits in an index of the table */
+    private int tableBits = Integer.numberOfTrailingZeros(INITIAL_CAPACITY * 2);
+    /** Number of configurations added */
+    private int size = 0;
+
+    /**
+     * Adds a configuration unless an equal one is already in the arena
+     *
+     * @param config the configuration
+     * @param parent index of its predecessor, or {@link #NO_PARENT}
+     * @return the index it was added at, or -1 if it was already there
+     */
+    public int add(Configuration config, int parent){
+        return add(config, config, parent);
+    }
+
+    /**
+     * Adds a configuration unless one was already added under an equal key
+     *
+     * @param config the configuration
+     * @param key what it is looked up by
+     * @param parent index of its predecessor, or {@link #NO_PARENT}
+     * @return the index it was added at, or -1 if the key was already there
+     */
+    public int add(Configuration config, Configuration key, int parent){
+        return add(config, key, parent, null);
+    }
+
+    /**
+     * Adds a configuration unless one was already added or turned away
+     * under an equal key, or it is turned away now. The check is only made
+     * for a key that has not been seen yet, and a key turned away is
+     * remembered, so a costly check is made once per key.
+     *
+     * @param config the configuration
+     * @param key what it is looked up by
+     * @param parent index of its predecessor, or {@link #NO_PARENT}
+     * @param reject says which new configurations are not added, or null
+     *               to add them all
+     * @return the index it was added at, or -1 if the key was already seen
+     * or the configuration was turned away
+     */
+    public int add(Configuration config, Configuration key, int parent, Predicate<Configuration> reject){
+        int hash = key.hashCode();
+        int mask = table.length - 1;
+        int slot = slot(hash);
+        for (int entry = table[slot]; entry != 0; entry = table[slot]) {
+            if (entry > 0 ? hashes[entry - 1] == hash && key(entry - 1).equals(key)
+                    : rejectedHashes[-entry - 1] == hash && rejected[-entry - 1].equals(key)) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (reject != null && reject.test(config)) {
+            if (rejectedSize == rejected.length) {
+                rejected = Arrays.copyOf(rejected, Math.max(INITIAL_CAPACITY, rejectedSize * 2));
+                rejectedHashes = Arrays.copyOf(rejectedHashes, rejected.length);
+            }
+            rejected[rejectedSize] = key;
+            rejectedHashes[rejectedSize] = hash;
+            table[slot] = -++rejectedSize;
+            if (size + rejectedSize > table.length / 2) {
+                rehash();
+            }
+            return -1;
+        }
+        if (size == states.length) {
+            states = Arrays.copyOf(states, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+            parents = Arrays.copyOf(parents, size * 2);
+            if (keys != null) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+        }
+        if (keys == null && key != config) {
+            keys = Arrays.copyOf(states, states.length);
+        }
+        int index = size++;
+        states[index] = config;
+        if (keys != null) {
+            keys[index] = key;
+        }
+        hashes[index] = hash;
+        parents[index] = parent;
+        table[slot] = index + 1;
+        if (size + rejectedSize > table.length / 2) {
+            rehash();
+        }
+        return index;
+    }
+
+    /**
+     * Gets the key of the configuration at an index
+     *
+     * @param index the index
+     * @return the key it was added under
+     */
+    private Configuration key(int index){
+        return keys == null ? states[index] : keys[index];
+    }
+
+    /**
+     * Gets the configuration at an index
+     *
+     * @param index the index
+     * @return the configuration
+     */
+    public Configuration get(int index){ return states[index]; }
+
+    /**
+     * Gets the predecessor of the configuration at an index
+     *
+     * @param index the index
+     * @return index of the predecessor, or {@link #NO_PARENT}
+     */
+    public int parent(int index){ return parents[index]; }
+
+    /**
+     * Gets the number of configurations in the arena
+     *
+     * @return number of configurations
+     */
+    public int size(){ return size; }
+
+    /**
+     * Gets the array of configurations itself. Nothing before {@link #size()}
+     * is ever changed, and growing copies into a new array, so what is
+     * returned stays a correct view of the first {@link #size()} entries
+     * even while more are added.
+     *
+     * @return the configurations, in the order they were added
+     */
+    Configuration[] states(){ return states; }
+
+    /**
+     * Gets the array of predecessor indices itself, which stays correct
+     * the same way as {@link #states()}
+     *
+     * @return the index of the predecessor of each configuration
+     */
+    int[] parents(){ return parents; }
+
+    /**
+     * Builds the path from the first configuration added to the one at an
+     * index by following the predecessors back, filling the path from its
+     * end so each step is written once
+     *
+     * @param end index of the last configuration of the path
+     * @return the configurations of the path, in order
+     */
+    public Configuration[] path(int end){
+        int length = 0;
+        for (int step = end; step != NO_PARENT; step = parents[step]) {
+            length++;
+        }
+        Configuration[] path = new Configuration[length];
+        for (int step = end; step != NO_PARENT; step = parents[step]) {
+            path[--length] = states[step];
+        }
+        return path;
+    }
+
+    /**
+     * Finds the home slot of a hash code in the table
+     *
+     * @param hash the hash code
+     * @return the slot
+     */
+    private int slot(int hash){
+        return (hash * SPREAD) >>> (Integer.SIZE - tableBits);
+    }
+
+    /**
+     * Doubles the table and puts every index and key turned away back in,
+     * using the stored hash codes so no configuration is hashed again
+     */
+    private void rehash(){
+        table = new int[table.length * 2];
+        tableBits++;
+        for (int index = 0; index < size; index++) {
+            table[free(hashes[index])] = index + 1;
+        }
+        for (int index = 0; index < rejectedSize; index++) {
+            table[free(rejectedHashes[index])] = -(index + 1);
+        }
+    }
+
+    /**
+     * Finds the first empty slot from the home slot of a hash code
+     *
+     * @param hash the hash code
+     * @return the slot
+     */
+    private int free(int hash){
+        int mask = table.length - 1;
+        int slot = slot(hash);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
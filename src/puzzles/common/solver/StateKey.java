@@ -0,0 +1,82 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * An encoded configuration used as a key of the visited map. Encodings of
+ * up to eight bytes, which is every small board, are folded into a single
+ * long so they need no array at all.
+ *
+ * @author Tiffany Lee
+ */
+public final class StateKey {
+    /** Largest encoding that is folded into a long */
+    private static final int PACKED_BYTES = Long.BYTES;
+
+    /** The encoding folded into a long, if it is small enough */
+    private final long packed;
+    /** The encoding, or null if it was folded into {@link #packed} */
+    private final byte[] state;
+    /** Length of the encoding */
+    private final int length;
+
+    /**
+     * Wraps an encoding
+     *
+     * @param state the encoding of a configuration
+     */
+    public StateKey(byte[] state){
+        this.length = state.length;
+        if (state.length <= PACKED_BYTES) {
+            long bits = 0;
+            for (int i = 0; i < state.length; i++) {
+                bits |= (state[i] & 0xFFL) << (8 * i);
+            }
+            this.packed = bits;
+            this.state = null;
+        } else {
+            this.packed = 0;
+            this.state = state;
+        }
+    }
+
+    /**
+     * Gets the encoding back out of the key
+     *
+     * @return the encoding
+     */
+    public byte[] bytes(){
+        if (state != null) {
+            return state;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (packed >>> (8 * i));
+        }
+        return bytes;
+    }
+
+    /**
+     * Two keys are equal iff they hold the same encoding
+     *
+     * @param other the other object
+     * @return whether they are equal or not
+     */
+    @Override
+    public boolean equals(Object other){
+        if (other instanceof StateKey otherKey) {
+            return this.length == otherKey.length
+                    && this.packed == otherKey.packed
+                    && Arrays.equals(this.state, otherKey.state);
+        }
+        return false;
+    }
+
+    /**
+     * @return the hashcode of the encoding
+     */
+    @Override
+    public int hashCode(){
+        return state != null ? Arrays.hashCode(state) : Long.hashCode(packed * 0x9E3779B97F4A7C15L);
+    }
+}
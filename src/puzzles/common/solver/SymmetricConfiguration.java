@@ -0,0 +1,20 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration whose puzzle plays the same after the board is turned or
+ * flipped. Configurations a symmetry apart are either both solvable in the
+ * same number of moves or both not, so {@link Solver} only visits one of
+ * them, while still building the path from the configurations it actually
+ * reached.
+ *
+ * @author Tiffany Lee
+ */
+public interface SymmetricConfiguration extends Configuration {
+    /**
+     * Gets the configuration that stands for every configuration a
+     * symmetry away from this one. They all must give equal results.
+     *
+     * @return the canonical form, which may be this configuration itself
+     */
+    Configuration canonical();
+}
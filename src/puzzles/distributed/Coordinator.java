@@ -0,0 +1,239 @@
+package puzzles.distributed;
+
+import puzzles.common.solver.CompactConfiguration;
+import puzzles.common.solver.Configuration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Runs a breadth first search spread over several {@link Worker}
+ * processes, each owning a hash partition of the configurations. It waits
+ * for the workers to connect, tells them about each other, and then
+ * drives the search a layer at a time: first asking whether any of them
+ * holds a solution in its frontier, then having them all expand their
+ * frontiers and waiting until every one is done. Once a solution is found
+ * it builds the path by asking the owner of each configuration for its
+ * predecessor.
+ * <pre>
+ *     java Coordinator port workers filename
+ * </pre>
+ * It only listens on the loopback address, so the workers have to run on
+ * the same machine.
+ *
+ * @author Tiffany Lee
+ */
+public class Coordinator {
+    /**
+     * A connected worker
+     *
+     * @param socket the connection
+     * @param in the stream of its replies
+     * @param out the stream of commands to it
+     * @param host the host it listens for peers on
+     * @param port the port it listens for peers on
+     */
+    private record Link(Socket socket, DataInputStream in, DataOutputStream out, String host, int port) {}
+
+    /** The connected workers, by their number */
+    private final List<Link> links = new ArrayList<>();
+    /** The start configuration */
+    private final CompactConfiguration start;
+    /** Total number of configurations it took to get to a solution */
+    private long totalConfigs = 0;
+    /** Number of unique configurations it took to get to a solution */
+    private long uniqueConfigs = 0;
+
+    /**
+     * Initialize a new coordinator
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public Coordinator(CompactConfiguration start) {
+        this.start = start;
+    }
+
+    /**
+     * Waits for the workers, then runs the search with them and stops them
+     *
+     * @param server where the workers connect
+     * @param workers number of workers to wait for
+     * @return A solution, or null if no solution
+     * @throws IOException if a worker cannot be reached
+     */
+    public Collection<Configuration> solve(ServerSocket server, int workers) throws IOException {
+        try {
+            for (int worker = 0; worker < workers; worker++) {
+                Socket socket = server.accept();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                if (in.readInt() != Protocol.HELLO) {
+                    throw new IOException("Expected a worker to say hello");
+                }
+                links.add(new Link(socket, in, out, socket.getInetAddress().getHostAddress(), in.readInt()));
+            }
+            for (int worker = 0; worker < workers; worker++) {
+                DataOutputStream out = links.get(worker).out();
+                out.writeInt(Protocol.PEERS);
+                out.writeInt(worker);
+                out.writeInt(workers);
+                for (Link peer : links) {
+                    out.writeUTF(peer.host());
+                    out.writeInt(peer.port());
+                }
+                out.flush();
+            }
+            for (Link link : links) {
+                if (link.in().readInt() != Protocol.PEERS) {
+                    throw new IOException("Expected a worker to be connected to its peers");
+                }
+            }
+            return search();
+        } finally {
+            for (Link link : links) {
+                link.out().writeInt(Protocol.STOP);
+                link.out().flush();
+                link.socket().close();
+            }
+        }
+    }
+
+    /**
+     * Drives the search a layer at a time
+     *
+     * @return A solution, or null if no solution
+     * @throws IOException if a worker cannot be reached
+     */
+    private Collection<Configuration> search() throws IOException {
+        totalConfigs = 1;
+        uniqueConfigs = 1;
+        while (true) {
+            broadcast(Protocol.CHECK);
+            byte[] solution = null;
+            for (Link link : links) {
+                if (link.in().readInt() != 0) {
+                    byte[] found = Protocol.readBytes(link.in());
+                    if (solution == null) {
+                        solution = found;
+                    }
+                }
+            }
+            if (solution != null) {
+                return constructPath(solution);
+            }
+            broadcast(Protocol.EXPAND);
+            long frontier = 0;
+            for (Link link : links) {
+                totalConfigs += link.in().readLong();
+                uniqueConfigs += link.in().readLong();
+                frontier += link.in().readLong();
+            }
+            if (frontier == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Sends a command to every worker
+     *
+     * @param command the command
+     * @throws IOException if a worker cannot be reached
+     */
+    private void broadcast(int command) throws IOException {
+        for (Link link : links) {
+            link.out().writeInt(command);
+            link.out().flush();
+        }
+    }
+
+    /**
+     * Constructs a path by asking the owner of each configuration for its
+     * predecessor, and returns the sequence from start to finish
+     *
+     * @param end encoding of the finishing configuration
+     * @return a list containing the sequence of configurations comprising
+     * the path
+     * @throws IOException if a worker cannot be reached
+     */
+    private Collection<Configuration> constructPath(byte[] end) throws IOException {
+        LinkedList<Configuration> path = new LinkedList<>();
+        byte[] step = end;
+        while (step != null) {
+            path.addFirst(start.decode(step));
+            Link owner = links.get(Protocol.owner(step, links.size()));
+            owner.out().writeInt(Protocol.PARENT);
+            Protocol.writeBytes(owner.out(), step);
+            owner.out().flush();
+            step = owner.in().readInt() != 0 ? Protocol.readBytes(owner.in()) : null;
+        }
+        return new ArrayList<>(path);
+    }
+
+    /**
+     * Gets the total number of configurations it took to get a solution
+     * @return total number of configurations
+     */
+    public long getTotalConfigs() { return totalConfigs; }
+
+    /**
+     * Gets the number of unique configurations it took to get a solution
+     * @return number of unique configurations
+     */
+    public long getUniqueConfigs() { return uniqueConfigs; }
+
+    /**
+     * Prints a solve the way the Chess and Hoppers programs do
+     *
+     * @param filename the puzzle file
+     * @param coordinator the coordinator that ran it
+     * @param solved the solution, or null if there is none
+     */
+    static void print(String filename, Coordinator coordinator, Collection<Configuration> solved) {
+        System.out.println("File: " + filename);
+        System.out.print(coordinator.start);
+        System.out.println("Total configs: " + coordinator.getTotalConfigs());
+        System.out.println("Unique configs: " + coordinator.getUniqueConfigs());
+        if (solved != null) {
+            int step = 0;
+            for (Configuration config : solved) {
+                System.out.println("Step " + step + ":");
+                System.out.println(config);
+                step += 1;
+            }
+        } else {
+            System.out.println("No solution");
+        }
+    }
+
+    /**
+     * The main method.
+     * @param args the port to listen on, the number of workers, and the
+     *             name of the puzzle file
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: java Coordinator port workers filename");
+        } else {
+            int workers = Integer.parseInt(args[1]);
+            try (ServerSocket server = new ServerSocket(Integer.parseInt(args[0]), workers,
+                    InetAddress.getLoopbackAddress())) {
+                Coordinator coordinator = new Coordinator(Protocol.load(args[2]));
+                Collection<Configuration> solved = coordinator.solve(server, workers);
+                print(args[2], coordinator, solved);
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+    }
+}
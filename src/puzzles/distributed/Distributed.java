@@ -0,0 +1,72 @@
+package puzzles.distributed;
+
+import puzzles.common.solver.Configuration;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Runs a distributed search on this host: a {@link Coordinator} in this
+ * JVM and the given number of {@link Worker}s, each in a JVM of its own
+ * started with the same Java and class path as this one.
+ * <pre>
+ *     java Distributed workers filename
+ * </pre>
+ *
+ * @author Tiffany Lee
+ */
+public class Distributed {
+    /**
+     * Starts a worker JVM
+     *
+     * @param server where the coordinator listens
+     * @param filename the puzzle file
+     * @return the worker's process
+     * @throws IOException if it cannot be started
+     */
+    private static Process startWorker(ServerSocket server, String filename) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path")));
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) {
+            command.addAll(List.of("-p", modulePath, "--add-modules", "ALL-MODULE-PATH"));
+        }
+        command.addAll(List.of(Worker.class.getName(),
+                server.getInetAddress().getHostAddress() + ":" + server.getLocalPort(), filename));
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    /**
+     * The main method.
+     * @param args the number of workers and the name of the puzzle file
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java Distributed workers filename");
+        } else {
+            int workers = Integer.parseInt(args[0]);
+            List<Process> processes = new ArrayList<>();
+            try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+                Coordinator coordinator = new Coordinator(Protocol.load(args[1]));
+                for (int worker = 0; worker < workers; worker++) {
+                    processes.add(startWorker(server, args[1]));
+                }
+                Collection<Configuration> solved = coordinator.solve(server, workers);
+                Coordinator.print(args[1], coordinator, solved);
+                for (Process process : processes) {
+                    process.waitFor();
+                }
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            } catch (InterruptedException e) {
+                System.out.println("Interrupted waiting for the workers");
+            } finally {
+                processes.forEach(Process::destroy);
+            }
+        }
+    }
+}
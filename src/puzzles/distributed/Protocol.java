@@ -0,0 +1,105 @@
+package puzzles.distributed;
+
+import puzzles.chess.model.ChessConfig;
+import puzzles.common.solver.CompactConfiguration;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * What the coordinator and the workers of a distributed search say to each
+ * other, and the few things they must agree on.
+ * <p>
+ * The coordinator sends a command and every worker answers it before the
+ * next one, so each layer of the search ends at a barrier. Workers send
+ * each other batches of (predecessor, successor) encodings, and one
+ * {@link #END_LAYER} each once they are done expanding a layer.
+ *
+ * @author Tiffany Lee
+ */
+final class Protocol {
+    /** Worker to coordinator: the port it takes batches from its peers on */
+    static final int HELLO = 1;
+    /** Coordinator to worker: its number, and where every worker listens */
+    static final int PEERS = 2;
+    /** Coordinator to worker: is a configuration of the frontier a solution? */
+    static final int CHECK = 3;
+    /** Coordinator to worker: expand the frontier into the next layer */
+    static final int EXPAND = 4;
+    /** Coordinator to worker: what is the predecessor of a configuration? */
+    static final int PARENT = 5;
+    /** Coordinator to worker: the search is over */
+    static final int STOP = 6;
+    /** Worker to worker: some successors the receiver owns */
+    static final int BATCH = 10;
+    /** Worker to worker: the sender has nothing more for this layer */
+    static final int END_LAYER = 11;
+
+    /** Number of successors sent to a peer at once */
+    static final int BATCH_SIZE = 4096;
+
+    /**
+     * This class only holds constants and helpers
+     */
+    private Protocol() {}
+
+    /**
+     * Gets the worker that owns a configuration. Every JVM computes the
+     * same owner, since it only depends on the encoding.
+     *
+     * @param state the encoding of the configuration
+     * @param workers number of workers
+     * @return the number of the owning worker
+     */
+    static int owner(byte[] state, int workers) {
+        int hash = Arrays.hashCode(state) * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), workers);
+    }
+
+    /**
+     * Writes an encoding, length first
+     *
+     * @param out where it is written
+     * @param state the encoding
+     * @throws IOException if it cannot be written
+     */
+    static void writeBytes(DataOutputStream out, byte[] state) throws IOException {
+        out.writeInt(state.length);
+        out.write(state);
+    }
+
+    /**
+     * Reads an encoding written by {@link #writeBytes}
+     *
+     * @param in where it is read from
+     * @return the encoding
+     * @throws IOException if it cannot be read
+     */
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] state = new byte[in.readInt()];
+        in.readFully(state);
+        return state;
+    }
+
+    /**
+     * Loads the start of a puzzle, telling its kind by the start of the
+     * file name
+     *
+     * @param filename the puzzle file
+     * @return the start configuration
+     * @throws IOException if it cannot be read, or is not a chess or hoppers puzzle
+     */
+    static CompactConfiguration load(String filename) throws IOException {
+        String name = Path.of(filename).getFileName().toString();
+        if (name.startsWith("chess")) {
+            return new ChessConfig(filename);
+        } else if (name.startsWith("hoppers")) {
+            return new HoppersConfig(filename);
+        }
+        throw new IOException(filename + " is not a chess or hoppers puzzle");
+    }
+}
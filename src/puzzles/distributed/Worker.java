@@ -0,0 +1,345 @@
+package puzzles.distributed;
+
+import puzzles.common.solver.CompactConfiguration;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.StateKey;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * One process of a distributed breadth first search. It owns the
+ * configurations whose encodings hash to its number: it alone remembers
+ * whether they were visited and what their predecessors are, and it alone
+ * expands them. Successors owned by another worker are sent to it in
+ * batches.
+ * <pre>
+ *     java Worker host:port filename
+ * </pre>
+ * where host:port is the coordinator. It listens for its peers on the
+ * loopback address only.
+ *
+ * @author Tiffany Lee
+ */
+public class Worker {
+    /**
+     * A successor sent by a peer
+     *
+     * @param parent encoding of its predecessor
+     * @param state its encoding
+     */
+    private record Arrival(StateKey parent, StateKey state) {}
+
+    /** Put in the inbox when a peer is done with a layer */
+    private static final Arrival END = new Arrival(null, null);
+
+    /** Stores the predecessor of each visited configuration this worker owns */
+    private final HashMap<StateKey, StateKey> predecessors = new HashMap<>();
+    /** Successors sent by the peers, waiting to be added */
+    private final BlockingQueue<Arrival> inbox = new LinkedBlockingQueue<>();
+    /** The start configuration, used to decode the others */
+    private final CompactConfiguration start;
+    /** Configurations of the current layer this worker owns */
+    private List<StateKey> frontier = new ArrayList<>();
+    /** The same configurations, decoded when they were checked */
+    private List<Configuration> decoded = new ArrayList<>();
+    /** Configurations of the next layer this worker owns */
+    private List<StateKey> next = new ArrayList<>();
+    /** Number of this worker */
+    private int id;
+    /** Number of workers */
+    private int workers;
+    /** Streams to every other worker, by their number */
+    private DataOutputStream[] peers;
+    /** Successors waiting to be sent to each other worker, by their number */
+    private List<List<StateKey[]>> outgoing;
+    /** Number of peers done with the current layer */
+    private int peersDone = 0;
+    /** Number of configurations added to the next layer */
+    private long added = 0;
+
+    /**
+     * Initialize a new worker
+     *
+     * @param start The start configuration of a puzzle
+     */
+    public Worker(CompactConfiguration start) {
+        this.start = start;
+    }
+
+    /**
+     * Joins the search run by a coordinator and does its share until the
+     * coordinator stops it
+     *
+     * @param host the coordinator's host
+     * @param port the coordinator's port
+     * @throws IOException if the coordinator or a peer cannot be reached
+     */
+    public void run(String host, int port) throws IOException {
+        try (ServerSocket listener = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+             Socket coordinator = new Socket(host, port)) {
+            DataInputStream commands = new DataInputStream(new BufferedInputStream(coordinator.getInputStream()));
+            DataOutputStream replies = new DataOutputStream(new BufferedOutputStream(coordinator.getOutputStream()));
+            replies.writeInt(Protocol.HELLO);
+            replies.writeInt(listener.getLocalPort());
+            replies.flush();
+            connect(commands, listener);
+            // tells the coordinator every peer is connected
+            replies.writeInt(Protocol.PEERS);
+            replies.flush();
+            byte[] startState = start.encode();
+            if (Protocol.owner(startState, workers) == id) {
+                StateKey startKey = new StateKey(startState);
+                predecessors.put(startKey, null);
+                frontier.add(startKey);
+            }
+            for (int command = commands.readInt(); command != Protocol.STOP; command = commands.readInt()) {
+                switch (command) {
+                    case Protocol.CHECK -> check(replies);
+                    case Protocol.EXPAND -> expand(replies);
+                    case Protocol.PARENT -> parent(Protocol.readBytes(commands), replies);
+                    default -> throw new IOException("Unknown command " + command);
+                }
+                replies.flush();
+            }
+            for (DataOutputStream peer : peers) {
+                if (peer != null) {
+                    peer.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Learns its number and where the peers are, then connects to each of
+     * them and takes a connection from each of them
+     *
+     * @param commands the stream from the coordinator
+     * @param listener where the peers connect
+     * @throws IOException if a peer cannot be reached
+     */
+    private void connect(DataInputStream commands, ServerSocket listener) throws IOException {
+        if (commands.readInt() != Protocol.PEERS) {
+            throw new IOException("Expected the list of peers");
+        }
+        id = commands.readInt();
+        workers = commands.readInt();
+        peers = new DataOutputStream[workers];
+        outgoing = new ArrayList<>();
+        for (int peer = 0; peer < workers; peer++) {
+            String peerHost = commands.readUTF();
+            int peerPort = commands.readInt();
+            outgoing.add(new ArrayList<>());
+            if (peer != id) {
+                Socket socket = new Socket(peerHost, peerPort);
+                peers[peer] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            }
+        }
+        for (int peer = 1; peer < workers; peer++) {
+            Socket socket = listener.accept();
+            Thread reader = new Thread(() -> receive(socket), "worker-" + id + "-receiver");
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * Reads batches from one peer into the inbox until it disconnects
+     *
+     * @param socket the connection from the peer
+     */
+    private void receive(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                int message = in.readInt();
+                if (message == Protocol.END_LAYER) {
+                    inbox.put(END);
+                } else {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        StateKey parent = new StateKey(Protocol.readBytes(in));
+                        inbox.put(new Arrival(parent, new StateKey(Protocol.readBytes(in))));
+                    }
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // the peer is gone, which is how every search ends
+        }
+    }
+
+    /**
+     * Answers whether a configuration of the frontier is a solution, and
+     * which one
+     *
+     * @param replies the stream to the coordinator
+     * @throws IOException if the answer cannot be sent
+     */
+    private void check(DataOutputStream replies) throws IOException {
+        decoded = new ArrayList<>(frontier.size());
+        for (StateKey key : frontier) {
+            Configuration config = start.decode(key.bytes());
+            if (config.isSolution()) {
+                replies.writeInt(1);
+                Protocol.writeBytes(replies, key.bytes());
+                return;
+            }
+            decoded.add(config);
+        }
+        replies.writeInt(0);
+    }
+
+    /**
+     * Expands the frontier, sends each successor to its owner, and adds
+     * the ones it owns, its own and those sent by peers, to the next layer
+     *
+     * @param replies the stream to the coordinator
+     * @throws IOException if a peer or the coordinator cannot be reached
+     */
+    private void expand(DataOutputStream replies) throws IOException {
+        long generated = 0;
+        added = 0;
+        for (int index = 0; index < decoded.size(); index++) {
+            StateKey parent = frontier.get(index);
+            for (Configuration nbr : decoded.get(index).getNeighbors()) {
+                generated += 1;
+                byte[] state = ((CompactConfiguration) nbr).encode();
+                int owner = Protocol.owner(state, workers);
+                if (owner == id) {
+                    arrive(parent, new StateKey(state));
+                } else {
+                    List<StateKey[]> batch = outgoing.get(owner);
+                    batch.add(new StateKey[]{parent, new StateKey(state)});
+                    if (batch.size() >= Protocol.BATCH_SIZE) {
+                        send(owner);
+                    }
+                }
+            }
+            drain();
+        }
+        for (int peer = 0; peer < workers; peer++) {
+            if (peer != id) {
+                send(peer);
+                peers[peer].writeInt(Protocol.END_LAYER);
+                peers[peer].flush();
+            }
+        }
+        try {
+            while (peersDone < workers - 1) {
+                take(inbox.take());
+            }
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted waiting for peers", e);
+        }
+        peersDone = 0;
+        frontier = next;
+        decoded = List.of();
+        next = new ArrayList<>();
+        replies.writeLong(generated);
+        replies.writeLong(added);
+        replies.writeLong(frontier.size());
+    }
+
+    /**
+     * Sends the successors waiting for a peer
+     *
+     * @param peer number of the peer
+     * @throws IOException if the peer cannot be reached
+     */
+    private void send(int peer) throws IOException {
+        List<StateKey[]> batch = outgoing.get(peer);
+        if (batch.isEmpty()) {
+            return;
+        }
+        DataOutputStream out = peers[peer];
+        out.writeInt(Protocol.BATCH);
+        out.writeInt(batch.size());
+        for (StateKey[] pair : batch) {
+            Protocol.writeBytes(out, pair[0].bytes());
+            Protocol.writeBytes(out, pair[1].bytes());
+        }
+        batch.clear();
+    }
+
+    /**
+     * Adds whatever the peers have sent so far, without waiting
+     */
+    private void drain() {
+        for (Arrival arrival = inbox.poll(); arrival != null; arrival = inbox.poll()) {
+            take(arrival);
+        }
+    }
+
+    /**
+     * Handles one thing taken from the inbox
+     *
+     * @param arrival a successor, or {@link #END}
+     */
+    private void take(Arrival arrival) {
+        if (arrival == END) {
+            peersDone += 1;
+        } else {
+            arrive(arrival.parent(), arrival.state());
+        }
+    }
+
+    /**
+     * Adds a successor this worker owns to the next layer, unless it was
+     * already visited
+     *
+     * @param parent encoding of its predecessor
+     * @param state its encoding
+     */
+    private void arrive(StateKey parent, StateKey state) {
+        if (!predecessors.containsKey(state)) {
+            predecessors.put(state, parent);
+            next.add(state);
+            added += 1;
+        }
+    }
+
+    /**
+     * Answers with the predecessor of a configuration this worker owns
+     *
+     * @param state its encoding
+     * @param replies the stream to the coordinator
+     * @throws IOException if the answer cannot be sent
+     */
+    private void parent(byte[] state, DataOutputStream replies) throws IOException {
+        StateKey parent = predecessors.get(new StateKey(state));
+        if (parent == null) {
+            replies.writeInt(0);
+        } else {
+            replies.writeInt(1);
+            Protocol.writeBytes(replies, parent.bytes());
+        }
+    }
+
+    /**
+     * The main method.
+     * @param args the coordinator as host:port, and the name of the puzzle file
+     */
+    public static void main(String[] args) {
+        if (args.length != 2 || !args[0].contains(":")) {
+            System.out.println("Usage: java Worker host:port filename");
+        } else {
+            try {
+                String host = args[0].substring(0, args[0].lastIndexOf(':'));
+                int port = Integer.parseInt(args[0].substring(args[0].lastIndexOf(':') + 1));
+                new Worker(Protocol.load(args[1])).run(host, port);
+            } catch (IOException ioe) {
+                System.out.println(ioe.getMessage());
+            }
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package puzzles.hoppers.model;
+import puzzles.common.GridConfiguration;
+import puzzles.common.GridSymmetry;
+import puzzles.common.solver.CompactConfiguration;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.MonotoneConfiguration;
+import puzzles.common.solver.SymmetricConfiguration;
 import java.util.*;
+import java.util.function.Consumer;
 import java.io.*;
 
 /**
@@ -10,13 +16,15 @@ import java.io.*;
  *
  * @author Tiffany Lee
  */
-public class HoppersConfig implements Configuration{
+public class HoppersConfig extends GridConfiguration implements CompactConfiguration, MonotoneConfiguration, SymmetricConfiguration{
     /** grid of cells containing lily-pad(.), water(*), green frog(G), or red frog(R) */
     private char[][] grid;
     /** total number of rows in the hopper board */
     private int rows;
     /** total number of columns in the hopper board */
     private int cols;
+    /** turns and flips that map the water and the jumps of the board onto themselves */
+    private List<GridSymmetry> symmetries;
     /** red frog character */
     public static final char RED_FROG = 'R';
     /** green frog character */
@@ -25,6 +33,14 @@ public class HoppersConfig implements Configuration{
     public static final char LILY_PAD = '.';
     /** water character */
     public static final char WATER = '*';
+    /** offsets of the green frog jumped over in each diagonal jump */
+    private static final int[][] DIAGONAL_JUMPS = {{-1, -1}, {-1, 1}, {1, 1}, {1, -1}};
+    /** offsets of the green frog jumped over in each horizontal or vertical jump */
+    private static final int[][] STRAIGHT_JUMPS = {{-2, 0}, {2, 0}, {0, 2}, {0, -2}};
+    /** contents of a valid cell, in the order their codes are given in an encoding */
+    private static final String CELLS = "" + LILY_PAD + GREEN_FROG + RED_FROG;
+    /** number of bits used to encode a valid cell */
+    private static final int CELL_BITS = 2;
 
     /**
      * Constructs the initial configuration from an input file whose contents
@@ -57,6 +73,8 @@ public class HoppersConfig implements Configuration{
             System.err.println("Could not find file.");
             System.exit(1);
         }
+        this.symmetries = findSymmetries();
+        rehash();
     }
 
     /**
@@ -66,14 +84,200 @@ public class HoppersConfig implements Configuration{
      * @param other the config to copy
      */
     private HoppersConfig(HoppersConfig other){
+        super(other);
         this.grid = new char[other.rows][other.cols];
         this.rows = other.rows;
         this.cols = other.cols;
+        this.symmetries = other.symmetries;
         for(int r = 0; r < other.rows; r++){
             System.arraycopy(other.grid[r], 0, this.grid[r], 0, cols);
         }
     }
 
+    /**
+     * Finds the turns and flips of the board that every move still works
+     * the same under. Each one must put water on water, and put a cell
+     * with only diagonal jumps on another such cell.
+     *
+     * @return the symmetries of the board
+     */
+    private List<GridSymmetry> findSymmetries() {
+        List<GridSymmetry> found = new ArrayList<>();
+        for(GridSymmetry symmetry : GridSymmetry.values()){
+            if(symmetry.fits(rows, cols) && keepsBoard(symmetry)){
+                found.add(symmetry);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Does a symmetry keep the water and the kinds of jumps in place?
+     *
+     * @param symmetry the symmetry
+     * @return true if it does, false otherwise
+     */
+    private boolean keepsBoard(GridSymmetry symmetry) {
+        for(int r = 0; r < rows; r++){
+            for(int c = 0; c < cols; c++){
+                int sr = symmetry.sourceRow(r, c, rows, cols);
+                int sc = symmetry.sourceCol(r, c, rows, cols);
+                boolean diagonalOnly = (r%2 != 0) && (c%2 != 0);
+                boolean sourceDiagonalOnly = (sr%2 != 0) && (sc%2 != 0);
+                if((grid[r][c] == WATER) != (grid[sr][sc] == WATER) || diagonalOnly != sourceDiagonalOnly){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the board that comes first of this one turned and flipped every
+     * way the board allows.
+     *
+     * @return the canonical form, this board if it already is one
+     */
+    @Override
+    public Configuration canonical() {
+        GridSymmetry best = GridSymmetry.smallest(grid, symmetries);
+        if(best == GridSymmetry.IDENTITY){
+            return this;
+        }
+        HoppersConfig canonical = new HoppersConfig(this);
+        canonical.grid = best.apply(grid);
+        canonical.rehash();
+        return canonical;
+    }
+
+    /**
+     * Encodes the board as the contents of every cell that is not water,
+     * in row-major order. The water never changes, so it is left out.
+     *
+     * @return the encoding
+     */
+    @Override
+    public byte[] encode() {
+        byte[] state = new byte[(validCells() * CELL_BITS + 7) / 8];
+        int position = 0;
+        for(int r = 0; r < rows; r++){
+            for(int c = 0; c < cols; c++){
+                if(grid[r][c] != WATER){
+                    CompactConfiguration.writeBits(state, position, CELL_BITS, CELLS.indexOf(grid[r][c]));
+                    position += CELL_BITS;
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * The encoding leaves out the size of the board and where the water is.
+     *
+     * @return the name of the puzzle, the size of the board and its water
+     */
+    @Override
+    public String shape() {
+        StringBuilder shape = new StringBuilder("hoppers " + rows + "x" + cols + " ");
+        for(int r = 0; r < rows; r++){
+            for(int c = 0; c < cols; c++){
+                shape.append(grid[r][c] == WATER ? WATER : LILY_PAD);
+            }
+        }
+        return shape.toString();
+    }
+
+    /**
+     * Rebuilds a board with the same water as this one from its encoding.
+     *
+     * @param state the encoding made by {@link #encode()}
+     * @return the board it describes
+     */
+    @Override
+    public HoppersConfig decode(byte[] state) {
+        HoppersConfig decoded = new HoppersConfig(this);
+        int position = 0;
+        for(int r = 0; r < rows; r++){
+            for(int c = 0; c < cols; c++){
+                if(grid[r][c] != WATER){
+                    decoded.setContents(r, c, CELLS.charAt(CompactConfiguration.readBits(state, position, CELL_BITS)));
+                    position += CELL_BITS;
+                }
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * Counts the cells of the board that are not water.
+     *
+     * @return number of valid cells
+     */
+    private int validCells() {
+        int valid = 0;
+        for(int r = 0; r < rows; r++){
+            for(int c = 0; c < cols; c++){
+                if(grid[r][c] != WATER){
+                    valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Lists every jump the board allows, whatever is on it, with its cells
+     * numbered the way {@link #encode()} orders them: from the first cell
+     * that is not water in row-major order.
+     *
+     * @return the cell a frog jumps from, the cell it jumps over and the
+     * cell it lands on, for each jump
+     */
+    int[][] jumpTable() {
+        int[] number = new int[rows*cols];
+        int valid = 0;
+        for(int r = 0; r < rows; r++){
+            for(int c = 0; c < cols; c++){
+                number[r*cols + c] = grid[r][c] != WATER ? valid++ : -1;
+            }
+        }
+        List<int[]> table = new ArrayList<>();
+        for(int r = 0; r < rows; r++){
+            for(int c = 0; c < cols; c++){
+                if(grid[r][c] != WATER){
+                    addJumps(r, c, DIAGONAL_JUMPS, number, table);
+                    if((r%2 == 0) || (c%2 == 0)){
+                        addJumps(r, c, STRAIGHT_JUMPS, number, table);
+                    }
+                }
+            }
+        }
+        return table.toArray(new int[0][]);
+    }
+
+    /**
+     * Adds the jumps from one cell that stay on the board and off the water.
+     *
+     * @param r the row of the cell
+     * @param c the column of the cell
+     * @param jumps offsets of the cell jumped over, the frog lands twice as far
+     * @param number the number of each cell, -1 for water
+     * @param table where the jumps are added
+     */
+    private void addJumps(int r, int c, int[][] jumps, int[] number, List<int[]> table){
+        for(int[] jump : jumps){
+            int endRow = r + 2*jump[0];
+            int endCol = c + 2*jump[1];
+            if(isValidCoordinate(endRow, endCol)){
+                int over = number[(r + jump[0])*cols + c + jump[1]];
+                int end = number[endRow*cols + endCol];
+                if(over >= 0 && end >= 0){
+                    table.add(new int[]{number[r*cols + c], over, end});
+                }
+            }
+        }
+    }
+
     /**
      * Gets the contents at a cell.
      *
@@ -108,9 +312,9 @@ public class HoppersConfig implements Configuration{
     public void move(int startRow, int startCol, int endRow, int endCol){
         int midRow = (startRow+endRow)/2;
         int midCol = (startCol+endCol)/2;
-        grid[endRow][endCol] = grid[startRow][startCol];
-        grid[midRow][midCol] = LILY_PAD;
-        grid[startRow][startCol] = LILY_PAD;
+        setContents(endRow, endCol, grid[startRow][startCol]);
+        setContents(midRow, midCol, LILY_PAD);
+        setContents(startRow, startCol, LILY_PAD);
     }
 
     /**
@@ -177,27 +381,55 @@ public class HoppersConfig implements Configuration{
     @Override
     public Collection<Configuration> getNeighbors() {
         Collection<Configuration> neighborsList = new ArrayList<>();
+        forEachNeighbor(neighborsList::add);
+        return neighborsList;
+    }
+
+    /**
+     * Hands every board one valid jump away to the sink, frog by frog in
+     * row-major order and jump by jump in the order of {@link #getMoves}.
+     * The jumps are read from fixed offset tables, so nothing is made for
+     * a jump that is not valid.
+     *
+     * @param sink receives each neighbor
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> sink) {
         for(int r = 0; r < rows; r++){
             for(int c = 0; c < cols; c++){
                 if(grid[r][c] == RED_FROG || grid[r][c] == GREEN_FROG){
-                    ArrayList<Integer[][]> neighborCoordinates = getMoves(r, c);
-                    for (Integer[][] move: neighborCoordinates) {
-                        if (isValidMove(move)){
-                            int midRow = move[0][0];
-                            int midCol = move[0][1];
-                            int endRow = move[1][0];
-                            int endCol = move[1][1];
-                            HoppersConfig neighbor = new HoppersConfig(this);
-                            neighbor.grid[r][c] = LILY_PAD;
-                            neighbor.grid[midRow][midCol] = LILY_PAD;
-                            neighbor.grid[endRow][endCol] = this.grid[r][c];
-                            neighborsList.add(neighbor);
-                        }
+                    jump(r, c, DIAGONAL_JUMPS, sink);
+                    if((r%2 == 0) || (c%2 == 0)){
+                        jump(r, c, STRAIGHT_JUMPS, sink);
                     }
                 }
             }
         }
-        return neighborsList;
+    }
+
+    /**
+     * Hands the board after each valid jump of one frog to the sink.
+     *
+     * @param r the row of the frog
+     * @param c the column of the frog
+     * @param jumps offsets of the cell jumped over, the frog lands twice as far
+     * @param sink receives each neighbor
+     */
+    private void jump(int r, int c, int[][] jumps, Consumer<Configuration> sink){
+        for(int[] jump : jumps){
+            int midRow = r + jump[0];
+            int midCol = c + jump[1];
+            int endRow = r + 2*jump[0];
+            int endCol = c + 2*jump[1];
+            if(isValidCoordinate(endRow, endCol) && grid[midRow][midCol] == GREEN_FROG
+                    && grid[endRow][endCol] == LILY_PAD){
+                HoppersConfig neighbor = new HoppersConfig(this);
+                neighbor.setContents(r, c, LILY_PAD);
+                neighbor.setContents(midRow, midCol, LILY_PAD);
+                neighbor.setContents(endRow, endCol, this.grid[r][c]);
+                sink.accept(neighbor);
+            }
+        }
     }
 
     /**
@@ -218,25 +450,32 @@ public class HoppersConfig implements Configuration{
     }
 
     /**
-     * Checks if a hopper board configuration is equal to another.
+     * Every jump takes one green frog off the board, so there are as many
+     * jumps left as there are green frogs.
      *
-     * @param other the other board config
-     * @return true if boards are equal, false otherwise
+     * @return number of green frogs on the board
      */
     @Override
-    public boolean equals(Object other){
-        if(other instanceof HoppersConfig otherHopper){
-            return Arrays.deepEquals(this.grid, otherHopper.grid);
+    public int movesRemaining() {
+        int greens = 0;
+        for(int r = 0; r < rows; r++){
+            for(int c = 0; c < cols; c++){
+                if(grid[r][c] == GREEN_FROG){
+                    greens++;
+                }
+            }
         }
-        return false;
+        return greens;
     }
 
     /**
-     * @return the hashcode of the current configuration
+     * Gets the grid the hash is kept for.
+     *
+     * @return the grid of cells, which is not copied
      */
     @Override
-    public int hashCode() {
-        return Arrays.deepHashCode(this.grid);
+    protected char[][] cells() {
+        return grid;
     }
 
     /**
@@ -0,0 +1,370 @@
+package puzzles.hoppers.model;
+
+import puzzles.common.solver.Configuration;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Which boards of one shape of Hoppers puzzle can be solved, worked out
+ * for every board at once. On a fixed shape a board is just the cell of
+ * the red frog and the set of cells with green frogs on them, so every
+ * board is numbered and given one bit.
+ * <p>
+ * The table is built backwards from the solutions, the boards with only
+ * the red frog left, a number of green frogs at a time: every jump takes
+ * one green frog off, so a board can be solved exactly when one of its
+ * jumps leads to a board with one green frog fewer that can. For the same
+ * reason a board that can be solved is always as many jumps from a
+ * solution as it has green frogs, so one bit is enough to know its
+ * distance too.
+ * <pre>
+ *     java HoppersDatabase filename...
+ * </pre>
+ * builds the table for the shape of each puzzle file and writes it where
+ * {@link #forShape} looks for it.
+ *
+ * @author Tiffany Lee
+ */
+public class HoppersDatabase {
+    /** Most cells that are not water a board may have to be tabled */
+    public static final int MAX_CELLS = 25;
+    /** First int of a table file */
+    private static final int MAGIC = 0x48505442;
+    /** Property naming the directory {@link #forShape} looks in */
+    private static final String DIRECTORY_PROPERTY = "puzzles.hoppers.tables";
+    /** Tables already read by {@link #forShape}, by shape */
+    private static final Map<String, HoppersDatabase> loaded = new HashMap<>();
+
+    /** The shape of the boards, see {@link HoppersConfig#shape()} */
+    private final String shape;
+    /** Number of cells that are not water */
+    private final int cells;
+    /** One bit for each board, set if it can be solved */
+    private final long[] solvable;
+
+    /**
+     * Initialize a table
+     *
+     * @param shape the shape of the boards
+     * @param cells number of cells that are not water
+     * @param solvable the bits of the boards
+     */
+    private HoppersDatabase(String shape, int cells, long[] solvable){
+        this.shape = shape;
+        this.cells = cells;
+        this.solvable = solvable;
+    }
+
+    /**
+     * Works out which boards of the shape of a puzzle can be solved
+     *
+     * @param puzzle any board of the shape
+     * @return the table
+     * @throws IllegalArgumentException if the board has more than
+     * {@link #MAX_CELLS} cells that are not water
+     */
+    public static HoppersDatabase build(HoppersConfig puzzle){
+        int[][] jumps = puzzle.jumpTable();
+        int cells = 0;
+        for(int r = 0; r < puzzle.getRows(); r++){
+            for(int c = 0; c < puzzle.getCols(); c++){
+                if(puzzle.getCell(r, c) != HoppersConfig.WATER){
+                    cells++;
+                }
+            }
+        }
+        if(cells > MAX_CELLS){
+            throw new IllegalArgumentException("A board with " + cells + " lily-pads is too big to table, at most "
+                    + MAX_CELLS);
+        }
+        HoppersDatabase table = new HoppersDatabase(puzzle.shape(), cells,
+                new long[(int) ((((long) cells << cells) + 63) >>> 6)]);
+        for(int red = 0; red < cells; red++){
+            table.set(0, red);
+        }
+        for(int greens = 1; greens < cells; greens++){
+            // every mask with this many bits, in increasing order
+            for(int mask = (1 << greens) - 1; mask < (1 << cells); ){
+                for(int red = 0; red < cells; red++){
+                    if((mask & (1 << red)) == 0 && table.anyJumpSolvable(mask, red, jumps)){
+                        table.set(mask, red);
+                    }
+                }
+                int lowest = mask & -mask;
+                int carried = mask + lowest;
+                mask = (((carried ^ mask) >>> 2) / lowest) | carried;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Does a jump from a board lead to one already known to be solvable?
+     *
+     * @param greens the cells with green frogs
+     * @param red the cell with the red frog
+     * @param jumps every jump of the shape
+     * @return true if one does, false otherwise
+     */
+    private boolean anyJumpSolvable(int greens, int red, int[][] jumps){
+        for(int[] jump : jumps){
+            int from = jump[0];
+            int over = 1 << jump[1];
+            int end = 1 << jump[2];
+            if((greens & over) == 0 || (greens & end) != 0 || jump[2] == red){
+                continue;
+            }
+            if(from == red){
+                if(get(greens & ~over, jump[2])){
+                    return true;
+                }
+            } else if((greens & (1 << from)) != 0 && get((greens & ~over & ~(1 << from)) | end, red)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the bit of a board
+     *
+     * @param greens the cells with green frogs
+     * @param red the cell with the red frog
+     * @return the bit
+     */
+    private boolean get(int greens, int red){
+        long bit = (long) greens * cells + red;
+        return (solvable[(int) (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Sets the bit of a board
+     *
+     * @param greens the cells with green frogs
+     * @param red the cell with the red frog
+     */
+    private void set(int greens, int red){
+        long bit = (long) greens * cells + red;
+        solvable[(int) (bit >>> 6)] |= 1L << bit;
+    }
+
+    /**
+     * Is a board of the shape of this table, with one red frog?
+     *
+     * @param config the board
+     * @return true if the table knows about it, false otherwise
+     */
+    public boolean covers(HoppersConfig config){
+        if(!config.shape().equals(shape)){
+            return false;
+        }
+        int reds = 0;
+        for(int r = 0; r < config.getRows(); r++){
+            for(int c = 0; c < config.getCols(); c++){
+                if(config.getCell(r, c) == HoppersConfig.RED_FROG){
+                    reds++;
+                }
+            }
+        }
+        return reds == 1;
+    }
+
+    /**
+     * Gets how many jumps a board is from a solution
+     *
+     * @param config a board this table {@link #covers}
+     * @return the number of jumps, or -1 if it cannot be solved
+     */
+    public int distance(HoppersConfig config){
+        int greens = 0;
+        int red = 0;
+        int cell = 0;
+        for(int r = 0; r < config.getRows(); r++){
+            for(int c = 0; c < config.getCols(); c++){
+                char contents = config.getCell(r, c);
+                if(contents == HoppersConfig.GREEN_FROG){
+                    greens |= 1 << cell;
+                } else if(contents == HoppersConfig.RED_FROG){
+                    red = cell;
+                }
+                if(contents != HoppersConfig.WATER){
+                    cell++;
+                }
+            }
+        }
+        return get(greens, red) ? Integer.bitCount(greens) : -1;
+    }
+
+    /**
+     * Gets the first board one jump away that can still be solved
+     *
+     * @param config a board this table {@link #covers}
+     * @return the next board, or null if there is none
+     */
+    public HoppersConfig nextStep(HoppersConfig config){
+        for(Configuration neighbor : config.getNeighbors()){
+            if(distance((HoppersConfig) neighbor) >= 0){
+                return (HoppersConfig) neighbor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets a solution by taking the first solvable jump from each board
+     *
+     * @param config a board this table {@link #covers}
+     * @return the boards from this one to a solution, or null if it cannot
+     * be solved
+     */
+    public List<Configuration> solution(HoppersConfig config){
+        if(distance(config) < 0){
+            return null;
+        }
+        List<Configuration> path = new ArrayList<>();
+        for(HoppersConfig step = config; step != null; step = nextStep(step)){
+            path.add(step);
+        }
+        return path;
+    }
+
+    /**
+     * Counts the boards that can be solved
+     *
+     * @return number of solvable boards
+     */
+    public long countSolvable(){
+        long count = 0;
+        for(long word : solvable){
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Writes the table, replacing the file only once it is complete
+     *
+     * @param path the file
+     * @throws UncheckedIOException if it cannot be written
+     */
+    public void write(Path path){
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if(path.getParent() != null){
+                Files.createDirectories(path.getParent());
+            }
+            try(DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))){
+                out.writeInt(MAGIC);
+                out.writeUTF(shape);
+                out.writeInt(cells);
+                for(long word : solvable){
+                    out.writeLong(word);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #write}
+     *
+     * @param path the file
+     * @return the table
+     * @throws UncheckedIOException if it cannot be read or is not a table
+     */
+    public static HoppersDatabase read(Path path){
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))){
+            if(in.readInt() != MAGIC){
+                throw new IOException(path + " is not a hoppers table");
+            }
+            String shape = in.readUTF();
+            int cells = in.readInt();
+            if(cells < 0 || cells > MAX_CELLS){
+                throw new IOException(path + " has a board of " + cells + " lily-pads");
+            }
+            long[] solvable = new long[(int) ((((long) cells << cells) + 63) >>> 6)];
+            for(int word = 0; word < solvable.length; word++){
+                solvable[word] = in.readLong();
+            }
+            return new HoppersDatabase(shape, cells, solvable);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the file the table of a shape is kept in: in the directory named
+     * by the puzzles.hoppers.tables system property, or in .puzzles/hoppers
+     * under the user's home directory if that is not set.
+     *
+     * @param config any board of the shape
+     * @return the file
+     */
+    public static Path pathFor(HoppersConfig config){
+        String name = System.getProperty(DIRECTORY_PROPERTY);
+        Path directory = name != null ? Path.of(name)
+                : Path.of(System.getProperty("user.home"), ".puzzles", "hoppers");
+        StringBuilder water = new StringBuilder("1");
+        for(int r = 0; r < config.getRows(); r++){
+            for(int c = 0; c < config.getCols(); c++){
+                water.append(config.getCell(r, c) == HoppersConfig.WATER ? '1' : '0');
+            }
+        }
+        return directory.resolve(config.getRows() + "x" + config.getCols() + "-"
+                + new BigInteger(water.toString(), 2).toString(16) + ".tbl");
+    }
+
+    /**
+     * Gets the table for the shape of a board, if one has been built
+     *
+     * @param config the board
+     * @return the table, or null if there is none for the board
+     */
+    public static synchronized HoppersDatabase forShape(HoppersConfig config){
+        HoppersDatabase table = loaded.get(config.shape());
+        if(table == null){
+            Path path = pathFor(config);
+            if(Files.exists(path)){
+                try {
+                    table = read(path);
+                    loaded.put(table.shape, table);
+                } catch (UncheckedIOException e) {
+                    System.err.println("Hoppers table unavailable: " + e.getMessage());
+                }
+            }
+        }
+        return table != null && table.covers(config) ? table : null;
+    }
+
+    /**
+     * The main method.
+     * @param args the names of puzzle files whose shapes are tabled
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java HoppersDatabase filename...");
+        }
+        for (String filename : args) {
+            try {
+                HoppersConfig puzzle = new HoppersConfig(filename);
+                long begin = System.nanoTime();
+                HoppersDatabase table = build(puzzle);
+                Path path = pathFor(puzzle);
+                table.write(path);
+                System.out.printf("%s: %d of %d boards solvable, %d ms, written to %s%n", filename,
+                        table.countSolvable(), table.cells * (1L << table.cells) / 2,
+                        (System.nanoTime() - begin) / 1_000_000, path);
+            } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                System.out.println(filename + ": " + e.getMessage());
+            }
+        }
+    }
+}
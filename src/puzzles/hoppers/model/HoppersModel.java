@@ -1,6 +1,9 @@
 package puzzles.hoppers.model;
 import puzzles.common.solver.Configuration;
-import puzzles.common.solver.Solver;
+import puzzles.common.solver.DepthFirstSolver;
+import puzzles.common.solver.SolutionStore;
+import puzzles.common.solver.SolveBudget;
+import puzzles.common.solver.SolveResult;
 import puzzles.common.Observer;
 import java.util.*;
 import java.io.*;
@@ -114,16 +117,35 @@ public class HoppersModel {
      * If the current state of the hopper puzzle is solvable, the puzzle
      * advances to the next step in the solution with an indication that was
      * successful. Other-wise the puzzle remains in the same state and
-     * indicates there is no solution.
+     * indicates there is no solution, or that no hint was found within
+     * the budget. Boards of a shape that has a {@link HoppersDatabase} are
+     * answered from it instead of searched.
      */
     public void hint(){
-        Solver solver = new Solver(currentConfig);
-        ArrayList<Configuration> hints = (ArrayList<Configuration>) solver.solve();
+        HoppersDatabase table = HoppersDatabase.forShape(currentConfig);
+        if (table != null) {
+            HoppersConfig next = table.nextStep(currentConfig);
+            if (next != null) {
+                currentConfig = next;
+                alertObservers("Next step!");
+            } else if (currentConfig.isSolution()) {
+                alertObservers("Solved!");
+            } else {
+                alertObservers("No Solution!");
+            }
+            return;
+        }
+        DepthFirstSolver solver = new DepthFirstSolver(currentConfig);
+        solver.useStore(SolutionStore.shared());
+        SolveResult result = solver.solve(SolveBudget.HINT);
+        List<Configuration> hints = result.path();
         if (hints != null && hints.size() >= 2) {
             currentConfig = (HoppersConfig) hints.get(1);
             alertObservers("Next step!");
         } else if (currentConfig.isSolution()){
             alertObservers("Solved!");
+        } else if (result.outcome() == SolveResult.Outcome.BUDGET_EXHAUSTED) {
+            alertObservers("No hint found in time");
         } else {
             alertObservers("No Solution!");
         }
@@ -3,8 +3,13 @@ package puzzles.hoppers.solver;
 import puzzles.common.solver.Configuration;
 import puzzles.common.solver.Solver;
 import puzzles.hoppers.model.HoppersConfig;
+import puzzles.hoppers.model.HoppersDatabase;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main hopper program that is run with one command line argument,
@@ -21,41 +26,88 @@ import java.util.Collection;
  * </pre>
  * When the solution is found there should only be the red frog on
  * the board
+ * <p>
+ * An optional second argument names a checkpoint file. The search is
+ * checkpointed to it every minute and when the program is stopped, and a
+ * later run given the same file carries on from where it left off.
+ * <p>
+ * If a {@link HoppersDatabase} has been built for the shape of the board,
+ * the solution is read from it without searching. The output keeps the
+ * same shape, with no configurations counted, and the table used is named
+ * on standard error.
  *
  * @author Tiffany Lee
  */
 public class Hoppers {
+    /** Time between checkpoints */
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofMinutes(1);
+    /** Longest a stopping program waits for its last checkpoint, in seconds */
+    private static final long CHECKPOINT_WAIT_SECONDS = 10;
+
     /**
      * The main method.
-     * @param args the command line arguments (name of input file)
+     * @param args the command line arguments (name of input file, and
+     *             optionally of a checkpoint file)
      */
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: java Hoppers filename");
+        if (args.length != 1 && args.length != 2) {
+            System.out.println("Usage: java Hoppers filename [checkpoint]");
         } else {
             try{
                 HoppersConfig hopper = new HoppersConfig(args[0]);
+                HoppersDatabase table = HoppersDatabase.forShape(hopper);
+                if (table != null) {
+                    System.err.println("Table: " + HoppersDatabase.pathFor(hopper));
+                    System.out.println("File: " + args[0]);
+                    System.out.print(hopper);
+                    System.out.println("Total configs: 0");
+                    System.out.println("Unique configs: 0");
+                    print(table.solution(hopper));
+                    return;
+                }
                 Solver solve = new Solver(hopper);
+                if (args.length == 2) {
+                    Path checkpoint = Path.of(args[1]);
+                    if (Files.exists(checkpoint)) {
+                        solve.resumeFrom(checkpoint);
+                    }
+                    solve.checkpointTo(checkpoint, CHECKPOINT_INTERVAL);
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try {
+                            solve.requestCheckpoint().get(CHECKPOINT_WAIT_SECONDS, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            System.err.println("Last checkpoint not written: " + e);
+                        }
+                    }));
+                }
                 Collection<Configuration> solved =  solve.solve();
 
                 System.out.println("File: " + args[0]);
                 System.out.print(hopper);
                 System.out.println("Total configs: " + solve.getTotalConfigs());
                 System.out.println("Unique configs: " + solve.getUniqueConfigs());
-
-                int step = 0;
-                if(solved != null){
-                    for(Configuration hop : solved){
-                        System.out.println("Step " + step + ":");
-                        System.out.println(hop);
-                        step += 1;
-                    }
-                } else {
-                    System.out.println("No solution");
-                }
+                print(solved);
             } catch(IOException ioe){
                 System.out.println(ioe.getMessage());
             }
         }
     }
+
+    /**
+     * Prints each step of a solution
+     *
+     * @param solved the solution, or null if there is none
+     */
+    private static void print(Collection<Configuration> solved) {
+        int step = 0;
+        if(solved != null){
+            for(Configuration hop : solved){
+                System.out.println("Step " + step + ":");
+                System.out.println(hop);
+                step += 1;
+            }
+        } else {
+            System.out.println("No solution");
+        }
+    }
 }
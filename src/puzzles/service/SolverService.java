@@ -0,0 +1,390 @@
+package puzzles.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import puzzles.chess.model.ChessConfig;
+import puzzles.clock.ClockConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveBudget;
+import puzzles.common.solver.SolveResult;
+import puzzles.common.solver.Solver;
+import puzzles.hoppers.model.HoppersConfig;
+import puzzles.strings.StringsConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Solves puzzles sent to it over HTTP, so the solvers can stay loaded in
+ * one long-lived JVM instead of a program being started for each puzzle.
+ * It only listens on the loopback address.
+ * <pre>
+ *     java SolverService [port] [maxUniqueConfigs]
+ *
+ *     POST /solve?type=chess|hoppers|clock|strings[&amp;budget=n]
+ *     GET  /metrics
+ * </pre>
+ * The body of a solve is the text of a chess or hoppers puzzle file, the
+ * hours, start and end of a clock, or the start and finish of a string,
+ * separated by spaces. The answer is JSON with how the solve ended, its
+ * statistics and the solution. The budget is the most unique
+ * configurations the solve may visit, from 1 up to the one the service
+ * was started with.
+ * <p>
+ * Requests are handled on a fixed pool of one thread per processor, so
+ * only that many solves run at once and the rest wait their turn.
+ *
+ * @author Tiffany Lee
+ */
+public class SolverService implements AutoCloseable {
+    /** Port listened on by default */
+    private static final int PORT = 8080;
+    /** Most unique configurations a solve may visit by default */
+    private static final int MAX_UNIQUE_CONFIGS = 1_000_000;
+    /** Longest a solve may run, whatever its budget */
+    private static final Duration TIME_LIMIT = Duration.ofSeconds(30);
+    /** Number of latencies the percentiles are taken over */
+    private static final int LATENCY_WINDOW = 1024;
+
+    /** The HTTP server */
+    private final HttpServer server;
+    /** The threads requests are handled on */
+    private final ExecutorService executor;
+    /** Most unique configurations a solve may visit */
+    private final int maxUniqueConfigs;
+    /** Number of requests answered */
+    private long requests = 0;
+    /** Number of requests answered with an error */
+    private long errors = 0;
+    /** Unique configurations visited by every solve */
+    private long statesVisited = 0;
+    /** Time spent in every solve, in nanoseconds */
+    private long solveNanos = 0;
+    /** Latencies of the most recent requests, in nanoseconds */
+    private final long[] latencies = new long[LATENCY_WINDOW];
+
+    /**
+     * Starts a service
+     *
+     * @param port the port to listen on, 0 for any free one
+     * @param maxUniqueConfigs most unique configurations a solve may visit
+     * @throws IllegalArgumentException if maxUniqueConfigs is less than 1
+     * @throws UncheckedIOException if the port cannot be listened on
+     */
+    public SolverService(int port, int maxUniqueConfigs) {
+        if (maxUniqueConfigs < 1) {
+            throw new IllegalArgumentException("The budget must be at least 1, not " + maxUniqueConfigs);
+        }
+        this.maxUniqueConfigs = maxUniqueConfigs;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "solver-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/solve", exchange -> handle(exchange, "POST", this::solve));
+        server.createContext("/metrics", exchange -> handle(exchange, "GET", ignored -> metrics()));
+        server.start();
+    }
+
+    /**
+     * Gets the port the service listens on
+     *
+     * @return the port
+     */
+    public int getPort() { return server.getAddress().getPort(); }
+
+    /**
+     * Stops the service, waiting a moment for requests being answered
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Something that answers a request with JSON
+     */
+    private interface Endpoint {
+        /**
+         * Answers a request
+         *
+         * @param exchange the request
+         * @return the JSON answer
+         * @throws IOException if the request cannot be read
+         */
+        String answer(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Answers a request, times it, and turns what goes wrong into an error
+     * status instead of a dropped connection
+     *
+     * @param exchange the request
+     * @param method the method the endpoint takes
+     * @param endpoint what answers it
+     * @throws IOException if the answer cannot be sent
+     */
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        long began = System.nanoTime();
+        int status = 200;
+        String body;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                status = 405;
+                body = error(method + " only");
+            } else {
+                body = endpoint.answer(exchange);
+            }
+        } catch (IOException | RuntimeException e) {
+            status = 400;
+            body = error(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        synchronized (this) {
+            latencies[(int) (requests % LATENCY_WINDOW)] = System.nanoTime() - began;
+            requests += 1;
+            if (status != 200) {
+                errors += 1;
+            }
+        }
+    }
+
+    /**
+     * Solves the puzzle of a request within its budget
+     *
+     * @param exchange the request
+     * @return the outcome, statistics and solution as JSON
+     * @throws IOException if the request cannot be read
+     */
+    private String solve(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        String type = query.getOrDefault("type", "");
+        int budget = maxUniqueConfigs;
+        if (query.containsKey("budget")) {
+            budget = Integer.parseInt(query.get("budget"));
+            if (budget < 1) {
+                // a budget of 0 would mean no limit at all
+                throw new IllegalArgumentException("The budget must be at least 1, not " + budget);
+            }
+            budget = Math.min(budget, maxUniqueConfigs);
+        }
+        SolveBudget limits = SolveBudget.UNLIMITED
+                .withTimeLimit(TIME_LIMIT)
+                .withMaxUniqueConfigs(budget)
+                .withHeapCeiling(Runtime.getRuntime().maxMemory() / 10 * 9);
+        String text = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        SolveResult result = new Solver(load(type, text)).solve(limits);
+        synchronized (this) {
+            statesVisited += result.uniqueConfigs();
+            solveNanos += result.elapsedNanos();
+        }
+        return json(type, result);
+    }
+
+    /**
+     * Makes the start configuration of a puzzle
+     *
+     * @param type the kind of puzzle
+     * @param text the puzzle file, or the parameters of a clock or string
+     * @return the start configuration
+     * @throws IOException if a puzzle file cannot be read
+     */
+    private static Configuration load(String type, String text) throws IOException {
+        String[] words = text.trim().split("\\s+");
+        switch (type) {
+            case "clock" -> {
+                if (words.length != 3) {
+                    throw new IllegalArgumentException("A clock takes hours, start and end");
+                }
+                int hours = Integer.parseInt(words[0]);
+                if (hours <= 0) {
+                    throw new IllegalArgumentException("A clock needs at least one hour");
+                }
+                return new ClockConfig(hours, Integer.parseInt(words[1]), Integer.parseInt(words[2]));
+            }
+            case "strings" -> {
+                if (words.length != 2 || words[0].length() != words[1].length()) {
+                    throw new IllegalArgumentException("A string takes a start and a finish of the same length");
+                }
+                return new StringsConfig(words[0], words[1]);
+            }
+            case "chess", "hoppers" -> {
+                // the puzzles are read from files, so the text is put in one
+                Path file = Files.createTempFile(type, ".txt");
+                try {
+                    Files.writeString(file, text);
+                    if (type.equals("chess")) {
+                        return new ChessConfig(file.toString());
+                    }
+                    return new HoppersConfig(file.toString());
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown puzzle type '" + type
+                    + "', expected chess, hoppers, clock or strings");
+        }
+    }
+
+    /**
+     * Splits a query string into its parameters
+     *
+     * @param raw the query, still encoded, or null if there is none
+     * @return the parameters by name
+     */
+    private static Map<String, String> query(String raw) {
+        Map<String, String> parameters = new HashMap<>();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Gets the counts, latency percentiles and solving rate of the service
+     *
+     * @return them as JSON
+     */
+    private synchronized String metrics() {
+        long[] recent = Arrays.copyOf(latencies, (int) Math.min(requests, LATENCY_WINDOW));
+        Arrays.sort(recent);
+        return "{\"requests\":" + requests
+                + ",\"errors\":" + errors
+                + ",\"latencyMillis\":{\"p50\":" + percentile(recent, 50)
+                + ",\"p90\":" + percentile(recent, 90)
+                + ",\"p99\":" + percentile(recent, 99)
+                + ",\"max\":" + percentile(recent, 100) + "}"
+                + ",\"statesVisited\":" + statesVisited
+                + ",\"statesPerSecond\":" + (solveNanos == 0 ? 0 : statesVisited * 1_000_000_000L / solveNanos)
+                + "}";
+    }
+
+    /**
+     * Gets a percentile of some latencies
+     *
+     * @param sorted the latencies in nanoseconds, smallest first
+     * @param percent which percentile
+     * @return the percentile in milliseconds, 0 if there are none
+     */
+    private static double percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = Math.max(0, (int) Math.ceil(sorted.length * percent / 100.0) - 1);
+        return sorted[index] / 1_000_000.0;
+    }
+
+    /**
+     * Writes the result of a solve as JSON
+     *
+     * @param type the kind of puzzle
+     * @param result how the solve ended
+     * @return the JSON
+     */
+    private static String json(String type, SolveResult result) {
+        StringBuilder json = new StringBuilder("{\"type\":").append(quote(type))
+                .append(",\"outcome\":").append(quote(result.outcome().name()))
+                .append(",\"steps\":").append(result.path() == null ? -1 : result.path().size() - 1)
+                .append(",\"totalConfigs\":").append(result.totalConfigs())
+                .append(",\"uniqueConfigs\":").append(result.uniqueConfigs())
+                .append(",\"elapsedMillis\":").append(result.elapsedNanos() / 1_000_000.0)
+                .append(",\"path\":");
+        List<Configuration> path = result.path();
+        if (path == null) {
+            json.append("null");
+        } else {
+            json.append('[');
+            for (int step = 0; step < path.size(); step++) {
+                json.append(step == 0 ? "" : ",").append(quote(path.get(step).toString()));
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Writes an error as JSON
+     *
+     * @param message what went wrong
+     * @return the JSON
+     */
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    /**
+     * Makes a JSON string
+     *
+     * @param text the contents
+     * @return the text quoted, with what JSON cannot hold as is escaped
+     */
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * The main method.
+     * @param args optionally the port to listen on and the most unique
+     *             configurations a solve may visit
+     */
+    public static void main(String[] args) {
+        if (args.length > 2) {
+            System.out.println("Usage: java SolverService [port] [maxUniqueConfigs]");
+        } else {
+            int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+            int budget = args.length > 1 ? Integer.parseInt(args[1]) : MAX_UNIQUE_CONFIGS;
+            SolverService service = new SolverService(port, budget);
+            Runtime.getRuntime().addShutdownHook(new Thread(service::close));
+            System.out.println("Solving on http://localhost:" + service.getPort() + "/solve");
+        }
+    }
+}
@@ -1,23 +1,38 @@
 package puzzles.strings;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.FrontierSolver;
 import puzzles.common.solver.Solver;
 import java.util.Collection;
 
 public class Strings {
     public static void main(String[] args) {
         if (args.length < 2) {
-            System.out.println(("Usage: java Strings start finish"));
+            System.out.println(("Usage: java Strings start finish [frontier]"));
         } else {
             String start = args[0];
             String finish = args[1];
             StringsConfig string = new StringsConfig(start, finish);
-            Solver solver = new Solver(string);
+            // frontier search keeps only three layers, for puzzles too big to remember
+            boolean frontier = args.length > 2 && args[2].equals("frontier");
+            Collection<Configuration> solved;
+            int totalConfigs;
+            int uniqueConfigs;
+            if (frontier) {
+                FrontierSolver solver = new FrontierSolver(string);
+                solved = solver.solve();
+                totalConfigs = solver.getTotalConfigs();
+                uniqueConfigs = solver.getUniqueConfigs();
+            } else {
+                Solver solver = new Solver(string);
+                solved = solver.solve();
+                totalConfigs = solver.getTotalConfigs();
+                uniqueConfigs = solver.getUniqueConfigs();
+            }
             int step = 0;
-            Collection<Configuration> solved = solver.solve();
             System.out.println("Start: " + start + ", End: " + finish);
-            System.out.println("Total configs: " + solver.getTotalConfigs());
-            System.out.println("Unique configs: " + solver.getUniqueConfigs());
+            System.out.println("Total configs: " + totalConfigs);
+            System.out.println("Unique configs: " + uniqueConfigs);
             if(solved != null){
                 for(Configuration hour : solved){
                     System.out.println("Step " + step + ": " + hour);
@@ -1,14 +1,22 @@
 package puzzles.strings;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.HeuristicConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class StringsConfig implements Configuration{
+public class StringsConfig implements ReversibleConfiguration, HeuristicConfiguration{
     /** starting string to begin transforming with */
     private final String start;
     /** finished string */
     private final String finish;
+    /** string the puzzle started from, which bounds what each character can become */
+    private final String origin;
 
     /**
      * Constructs the initial configuration from start and finish
@@ -17,8 +25,21 @@ public class StringsConfig implements Configuration{
      * @param finish finished string
      */
     public StringsConfig(String start, String finish){
+        this(start, finish, start);
+    }
+
+    /**
+     * Constructs a configuration reached from the string the puzzle
+     * started from
+     *
+     * @param start current string
+     * @param finish finished string
+     * @param origin string the puzzle started from
+     */
+    private StringsConfig(String start, String finish, String origin){
         this.start = start;
         this.finish = finish;
+        this.origin = origin;
     }
 
     /**
@@ -37,24 +58,168 @@ public class StringsConfig implements Configuration{
     @Override
     public Collection<Configuration> getNeighbors() {
         Collection<Configuration> neighborsList = new ArrayList<>();
-        for(int i = 0; i < start.length(); i++){
-            char up = (char) (start.charAt(i)+1);
-            char down = (char) (start.charAt(i)-1);
+        forEachNeighbor(neighborsList::add);
+        return neighborsList;
+    }
+
+    /**
+     * Hands each character moved one letter back, then one letter forward,
+     * to the sink
+     *
+     * @param sink receives each neighbor
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> sink) {
+        char[] chars = start.toCharArray();
+        for(int i = 0; i < chars.length; i++){
+            char current = chars[i];
+            char up = (char) (current+1);
+            char down = (char) (current-1);
             if(up > 'Z'){
                 up = 'A';
             } else if(down < 'A'){
                 down = 'Z';
             }
-            StringBuilder upStr = new StringBuilder(start);
-            StringBuilder downStr = new StringBuilder(start);
-            upStr.setCharAt(i, up);
-            downStr.setCharAt(i, down);
-            StringsConfig forward = new StringsConfig(upStr.toString(), finish);
-            StringsConfig backward = new StringsConfig(downStr.toString(), finish);
-            neighborsList.add(backward);
-            neighborsList.add(forward);
+            chars[i] = down;
+            sink.accept(new StringsConfig(new String(chars), finish, origin));
+            chars[i] = up;
+            sink.accept(new StringsConfig(new String(chars), finish, origin));
+            chars[i] = current;
         }
-        return neighborsList;
+    }
+
+    /**
+     * Get the collection of strings that have the current one as a
+     * neighbor. A character below 'A' can only climb towards it or jump to
+     * 'Z', and one above 'Z' can only fall towards it or jump to 'A', so
+     * moves out of them cannot be undone. Each character is traced back
+     * to every character that steps into it, keeping only those it could
+     * have been since the start.
+     *
+     * @return all predecessors
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        Collection<Configuration> predecessorsList = new ArrayList<>();
+        char[] chars = start.toCharArray();
+        for(int i = 0; i < chars.length; i++){
+            char current = chars[i];
+            char lowest = lowest(i);
+            char highest = highest(i);
+            Set<Character> candidates = new LinkedHashSet<>(List.of((char) (current-1), (char) (current+1)));
+            // every character past one end of the alphabet jumps to the other end
+            if(current == 'A'){
+                for(int previous = 'Z'; previous <= highest; previous++){
+                    candidates.add((char) previous);
+                }
+            } else if(current == 'Z'){
+                for(int previous = lowest; previous <= 'A'; previous++){
+                    candidates.add((char) previous);
+                }
+            }
+            for(char previous : candidates){
+                if(previous >= lowest && previous <= highest && steps(previous, current)){
+                    chars[i] = previous;
+                    predecessorsList.add(new StringsConfig(new String(chars), finish, origin));
+                }
+            }
+            chars[i] = current;
+        }
+        return predecessorsList;
+    }
+
+    /**
+     * Can one character become another in a single move?
+     *
+     * @param from the character before the move
+     * @param to the character after the move
+     * @return true if {@link #forEachNeighbor} would make that change
+     */
+    private static boolean steps(char from, char to) {
+        char up = (char) (from+1);
+        char down = (char) (from-1);
+        if(up > 'Z'){
+            up = 'A';
+        } else if(down < 'A'){
+            down = 'Z';
+        }
+        return up == to || down == to;
+    }
+
+    /**
+     * Gets the lowest character a place of the string can ever hold
+     *
+     * @param i the place in the string
+     * @return 'A', or the starting character if it is below 'A'
+     */
+    private char lowest(int i) {
+        return (char) Math.min(origin.charAt(i), 'A');
+    }
+
+    /**
+     * Gets the highest character a place of the string can ever hold
+     *
+     * @param i the place in the string
+     * @return 'Z', or the starting character if it is above 'Z'
+     */
+    private char highest(int i) {
+        return (char) Math.max(origin.charAt(i), 'Z');
+    }
+
+    /**
+     * Moving a letter either way around the alphabet can always be undone,
+     * so only a string that started with a character that is not a letter
+     * has moves that cannot
+     *
+     * @return true if the string started as letters only, false otherwise
+     */
+    @Override
+    public boolean isUndoable() {
+        return origin.chars().allMatch(c -> c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Get the only string that is a solution, the finished string, if it
+     * can be reached at all. It cannot when it is a different length or
+     * has a character that is not a letter and not one its place passes
+     * through on the way from the start.
+     *
+     * @return the goal string, or nothing if it cannot be reached
+     */
+    @Override
+    public Collection<Configuration> getGoals() {
+        if(finish.length() != origin.length()){
+            return List.of();
+        }
+        for(int i = 0; i < finish.length(); i++){
+            if(finish.charAt(i) < lowest(i) || finish.charAt(i) > highest(i)){
+                return List.of();
+            }
+        }
+        return List.of(new StringsConfig(finish, finish, origin));
+    }
+
+    /**
+     * Each move changes one character by one letter, wrapping around the
+     * alphabet, so every character needs at least the shorter of the two
+     * ways around to its finished letter. Characters that are not letters
+     * add nothing, so the estimate never overshoots.
+     *
+     * @return sum of the per character distances around the alphabet
+     */
+    @Override
+    public int estimate() {
+        int letters = 'Z' - 'A' + 1;
+        int moves = 0;
+        for(int i = 0; i < Math.min(start.length(), finish.length()); i++){
+            char from = start.charAt(i);
+            char to = finish.charAt(i);
+            if(from >= 'A' && from <= 'Z' && to >= 'A' && to <= 'Z'){
+                int apart = Math.abs(from - to);
+                moves += Math.min(apart, letters - apart);
+            }
+        }
+        return moves;
     }
 
     /**